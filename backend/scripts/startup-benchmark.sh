@@ -0,0 +1,74 @@
+#!/usr/bin/env bash
+# Startup benchmark: time from JVM launch until /actuator/health/readiness is UP
+# (i.e. including the warm-up), plain jar vs fast-start build (AOT + AppCDS + lazy init).
+#
+#   mvn -Pfast-start package && scripts/startup-benchmark.sh [runs]
+#
+# Both modes run with SESSION_STORE (default redis, as baked into the AOT build;
+# build with -Dfast-start.session-store=memory and set SESSION_STORE=memory without Redis).
+#
+# Results are appended to target/startup-benchmark.csv (date, commit, mode, run, ready_ms,
+# started_s as logged by Spring Boot) so regressions show up across commits; set RESULTS
+# to keep them somewhere that survives mvn clean.
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+RUNS=${1:-5}
+PORT=${PORT:-18080}
+RESULTS=${RESULTS:-target/startup-benchmark.csv}
+SESSION_STORE=${SESSION_STORE:-redis}
+JAR=$(ls target/meeting-translator-backend-*.jar | grep -v '\.original$' | head -1)
+APP_JAR="target/app/$(basename "$JAR")"
+CDS_ARCHIVE=target/app/application.jsa
+COMMIT=$(git rev-parse --short HEAD 2>/dev/null || echo unknown)
+WORK_DIR=$(mktemp -d)
+trap 'rm -rf "$WORK_DIR"' EXIT
+
+if [[ ! -f "$APP_JAR" || ! -f "$CDS_ARCHIVE" ]]; then
+  echo "Fast-start build missing, run: mvn -Pfast-start package" >&2
+  exit 1
+fi
+
+[[ -f "$RESULTS" ]] || echo "date,commit,mode,run,ready_ms,started_s" > "$RESULTS"
+
+now_ms() { date +%s%3N; }
+
+measure() {
+  local mode=$1; shift
+  local log="$WORK_DIR/$mode.log"
+  local total=0
+
+  for run in $(seq 1 "$RUNS"); do
+    local start
+    start=$(now_ms)
+    (cd "$WORK_DIR" && exec java "$@" --server.port="$PORT" --openai.api.key=benchmark) > "$log" 2>&1 &
+    local pid=$!
+
+    until curl -sf "http://localhost:$PORT/actuator/health/readiness" 2>/dev/null | grep -q '"UP"'; do
+      if ! kill -0 "$pid" 2>/dev/null; then
+        echo "$mode run $run: application exited, see log:" >&2
+        tail -20 "$log" >&2
+        exit 1
+      fi
+      sleep 0.05
+    done
+    local ready=$(( $(now_ms) - start ))
+
+    kill "$pid" && wait "$pid" 2>/dev/null || true
+
+    local started
+    started=$(grep -oE 'Started [A-Za-z]+ in [0-9.]+ seconds' "$log" | grep -oE '[0-9.]+' | head -1 || true)
+    echo "$(date -u +%FT%TZ),$COMMIT,$mode,$run,$ready,${started:-}" >> "$RESULTS"
+    printf '%-11s run %d: ready after %5d ms (Spring: %ss)\n' "$mode" "$run" "$ready" "${started:-?}"
+    total=$(( total + ready ))
+  done
+
+  printf '%-11s average: %d ms\n\n' "$mode" $(( total / RUNS ))
+}
+
+measure baseline -Dsession.store="$SESSION_STORE" -jar "$PWD/$JAR"
+measure fast-start -XX:SharedArchiveFile="$PWD/$CDS_ARCHIVE" -Dspring.aot.enabled=true \
+  -Dspring.profiles.active=fast-start -Dsession.store="$SESSION_STORE" -jar "$PWD/$APP_JAR"
+
+echo "Results appended to $RESULTS"
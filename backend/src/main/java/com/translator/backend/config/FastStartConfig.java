@@ -0,0 +1,32 @@
+package com.translator.backend.config;
+
+import com.translator.backend.service.AudioJournalService;
+import com.translator.backend.service.CaptionPipelineService;
+import com.translator.backend.service.CaptionPublisher;
+import com.translator.backend.service.DegradationService;
+import com.translator.backend.service.TranslationService;
+import com.translator.backend.service.WhisperService;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * With spring.main.lazy-initialization (fast-start profile) beans are created
+ * on first use. The caption pipeline has to be up before the first audio chunk
+ * arrives (and to replay the journal), so it stays eager; controllers, batch
+ * jobs, translation memory endpoints etc. are created on demand.
+ */
+@Configuration
+public class FastStartConfig {
+
+    @Bean
+    static LazyInitializationExcludeFilter eagerCaptionPipeline() {
+        return LazyInitializationExcludeFilter.forBeanTypes(
+                CaptionPipelineService.class,
+                CaptionPublisher.class,
+                WhisperService.class,
+                TranslationService.class,
+                DegradationService.class,
+                AudioJournalService.class);
+    }
+}
@@ -0,0 +1,140 @@
+package com.translator.backend.config;
+
+import com.translator.backend.service.CaptionPublisher;
+import io.micrometer.core.instrument.Counter;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Per-connection send buffer that keeps only the latest partial caption of
+ * each caption session while the client is still busy receiving earlier frames.
+ *
+ * Captions are keyed by their caption-session STOMP header (and encoding). A
+ * pending partial is sent before any other caption of the same session, so a
+ * final never overtakes the partial that preceded it. Send-time and buffer limits are
+ * enforced by the parent class, which closes the connection of a consumer
+ * that stays stuck.
+ */
+class PartialCaptionCoalescingSession extends ConcurrentWebSocketSessionDecorator {
+
+    private static final String DESTINATION_HEADER = "destination:";
+    private static final String SESSION_HEADER = CaptionPublisher.SESSION_HEADER + ":";
+    private static final int MAX_HEADER_SCAN = 512;
+
+    // caption session id + encoding suffix → latest partial not sent yet
+    private final ConcurrentHashMap<String, WebSocketMessage<?>> pendingPartials = new ConcurrentHashMap<>();
+    // Threads currently inside super.sendMessage
+    private final AtomicInteger sending = new AtomicInteger();
+    private final Counter coalesced;
+
+    PartialCaptionCoalescingSession(WebSocketSession delegate, int sendTimeLimit, int bufferSizeLimit,
+                                    Counter coalesced) {
+        super(delegate, sendTimeLimit, bufferSizeLimit);
+        this.coalesced = coalesced;
+    }
+
+    @Override
+    public void sendMessage(WebSocketMessage<?> message) throws IOException {
+        String head = stompHead(message);
+        String captionSession = head != null && head.startsWith("MESSAGE\n")
+                ? headerValue(head, SESSION_HEADER) : null;
+        String destination = captionSession != null ? headerValue(head, DESTINATION_HEADER) : null;
+        if (destination == null) {
+            send(message);
+            flushPendingPartials();
+            return;
+        }
+
+        boolean partial = destination.startsWith(CaptionPublisher.PARTIAL_DESTINATION);
+        String key = captionSession + "|" + destination.endsWith(CaptionPublisher.CBOR_SUFFIX);
+
+        if (partial && isBusy()) {
+            if (pendingPartials.put(key, message) != null) {
+                coalesced.increment();
+            }
+            // The sender may have finished in the meantime
+            if (!isBusy()) {
+                flushPendingPartials();
+            }
+            return;
+        }
+
+        WebSocketMessage<?> pending = pendingPartials.remove(key);
+        if (pending != null) {
+            if (partial) {
+                // Superseded by this newer partial
+                coalesced.increment();
+            } else {
+                send(pending);
+            }
+        }
+
+        send(message);
+        flushPendingPartials();
+    }
+
+    private void send(WebSocketMessage<?> message) throws IOException {
+        sending.incrementAndGet();
+        try {
+            super.sendMessage(message);
+        } finally {
+            sending.decrementAndGet();
+        }
+    }
+
+    private void flushPendingPartials() throws IOException {
+        for (String key : pendingPartials.keySet()) {
+            if (isBusy()) {
+                return;
+            }
+            WebSocketMessage<?> pending = pendingPartials.remove(key);
+            if (pending != null) {
+                send(pending);
+            }
+        }
+    }
+
+    private boolean isBusy() {
+        return sending.get() > 0 || getBufferSize() > 0;
+    }
+
+    private static String headerValue(String head, String prefix) {
+        int start = head.indexOf("\n" + prefix);
+        if (start < 0) {
+            return null;
+        }
+        start += prefix.length() + 1;
+        int end = head.indexOf('\n', start);
+        return head.substring(start, end >= 0 ? end : head.length());
+    }
+
+    /**
+     * STOMP command and headers of the frame (plain text for text and binary frames), null if none
+     */
+    private static String stompHead(WebSocketMessage<?> message) {
+        String head;
+        if (message instanceof TextMessage text) {
+            String payload = text.getPayload();
+            head = payload.substring(0, Math.min(payload.length(), MAX_HEADER_SCAN));
+        } else if (message instanceof BinaryMessage binary) {
+            ByteBuffer payload = binary.getPayload().duplicate();
+            byte[] bytes = new byte[Math.min(payload.remaining(), MAX_HEADER_SCAN)];
+            payload.get(bytes);
+            head = new String(bytes, StandardCharsets.ISO_8859_1);
+        } else {
+            return null;
+        }
+
+        int headerEnd = head.indexOf("\n\n");
+        return headerEnd >= 0 ? head.substring(0, headerEnd + 1) : null;
+    }
+}
@@ -0,0 +1,89 @@
+package com.translator.backend.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Thread pools for the audio → caption pipeline.
+ * Upstream calls are blocking I/O, so they get their own pool instead of the common ForkJoinPool.
+ */
+@Configuration
+public class PipelineConfig {
+
+    @Bean(destroyMethod = "shutdown")
+    public ThreadPoolExecutor audioPipelineExecutor(
+            @Value("${pipeline.asr.parallelism:8}") int parallelism,
+            MeterRegistry meterRegistry) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                parallelism, parallelism,
+                60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                namedThreads("audio-pipeline-"));
+        executor.allowCoreThreadTimeOut(true);
+        new ExecutorServiceMetrics(executor, "audioPipeline", Tags.empty()).bindTo(meterRegistry);
+        return executor;
+    }
+
+    /**
+     * Debounced interim translations of /api/translate. Bounded: when GPT is slow,
+     * excess interim revisions are rejected instead of piling up (the final still goes through)
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ThreadPoolExecutor translationExecutor(
+            @Value("${translation.revision.parallelism:8}") int parallelism,
+            @Value("${translation.revision.queue-capacity:64}") int queueCapacity,
+            MeterRegistry meterRegistry) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                parallelism, parallelism,
+                60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                namedThreads("translation-"));
+        executor.allowCoreThreadTimeOut(true);
+        new ExecutorServiceMetrics(executor, "translation", Tags.empty()).bindTo(meterRegistry);
+        return executor;
+    }
+
+    /**
+     * Offline batch jobs: separate pool so reprocessing never delays live captions
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public ThreadPoolExecutor batchExecutor(
+            @Value("${batch.parallelism:4}") int parallelism,
+            MeterRegistry meterRegistry) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                parallelism, parallelism,
+                60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                namedThreads("batch-"));
+        executor.allowCoreThreadTimeOut(true);
+        new ExecutorServiceMetrics(executor, "batch", Tags.empty()).bindTo(meterRegistry);
+        return executor;
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public ScheduledExecutorService pipelineScheduler() {
+        return Executors.newSingleThreadScheduledExecutor(namedThreads("pipeline-timer-"));
+    }
+
+    private static ThreadFactory namedThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return r -> {
+            Thread thread = new Thread(r, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,48 @@
+package com.translator.backend.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.support.AbstractSubscribableChannel;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.config.annotation.DelegatingWebSocketMessageBrokerConfiguration;
+import org.springframework.web.socket.messaging.SubProtocolWebSocketHandler;
+
+/**
+ * Replaces @EnableWebSocketMessageBroker so each client connection can get a
+ * send buffer that coalesces partial captions (see PartialCaptionCoalescingSession).
+ * Broker, endpoints and transport limits are still configured in WebSocketConfig.
+ */
+@Configuration
+public class WebSocketBrokerConfig extends DelegatingWebSocketMessageBrokerConfiguration {
+
+    @Value("${websocket.coalesce-partials:true}")
+    private boolean coalescePartials;
+
+    private final MeterRegistry meterRegistry;
+
+    public WebSocketBrokerConfig(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Bean
+    @Override
+    public WebSocketHandler subProtocolWebSocketHandler(AbstractSubscribableChannel clientInboundChannel,
+                                                        AbstractSubscribableChannel clientOutboundChannel) {
+        if (!coalescePartials) {
+            return super.subProtocolWebSocketHandler(clientInboundChannel, clientOutboundChannel);
+        }
+
+        Counter coalesced = Counter.builder("websocket.partials.coalesced").register(meterRegistry);
+        return new SubProtocolWebSocketHandler(clientInboundChannel, clientOutboundChannel) {
+            @Override
+            protected WebSocketSession decorateSession(WebSocketSession session) {
+                return new PartialCaptionCoalescingSession(
+                        session, getSendTimeLimit(), getSendBufferSizeLimit(), coalesced);
+            }
+        };
+    }
+}
@@ -1,22 +1,17 @@
 package com.translator.backend.controller;
 
-import com.translator.backend.dto.FinalTranslationDTO;
-import com.translator.backend.dto.PartialCaptionDTO;
 import com.translator.backend.model.AudioChunk;
-import com.translator.backend.service.LanguageDetectionService;
-import com.translator.backend.service.TranslationService;
-import com.translator.backend.service.WhisperService;
+import com.translator.backend.model.LanguagePair;
+import com.translator.backend.service.AudioJournalService;
+import com.translator.backend.service.CaptionPipelineService;
+import com.translator.backend.service.SegmentRevisionTracker;
+import com.translator.backend.service.SessionContextService;
+import com.translator.backend.service.SessionRouter;
+import com.translator.backend.service.SessionStateStore;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.UUID;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.Set;
-import java.util.concurrent.ConcurrentSkipListSet;
-
 @Slf4j
 @RestController
 @RequestMapping("/api")
@@ -24,155 +19,69 @@ import java.util.concurrent.ConcurrentSkipListSet;
 @CrossOrigin(origins = "*")
 public class AudioRestController {
 
-    private final WhisperService whisperService;
-    private final TranslationService translationService;
-    private final LanguageDetectionService languageDetectionService;
-    private final SimpMessagingTemplate messagingTemplate;
-    
-    private final ConcurrentHashMap<String, LanguagePair> sessionLanguages = new ConcurrentHashMap<>();
-    
-    // ✅ Thêm duplicate detection
-    private final ConcurrentHashMap<String, Set<String>> processedTexts = new ConcurrentHashMap<>();
-
+    private final CaptionPipelineService captionPipelineService;
+    private final SessionContextService sessionContextService;
+    private final SessionStateStore sessionStateStore;
+    private final AudioJournalService audioJournalService;
+    private final SegmentRevisionTracker revisionTracker;
+    private final SessionRouter sessionRouter;
+
+    /**
+     * Session requests are handled by the node owning the session's pipeline
+     * (any node accepts them and forwards, see SessionRouter)
+     */
     @PostMapping("/audio/upload")
-    public void uploadAudio(@RequestBody AudioChunk audioChunk) {
-        String sessionId = audioChunk.getSessionId();
-        
-        log.info("📥 HTTP: Audio received - Session: {}, Size: {} bytes", 
-                 sessionId, 
+    public void uploadAudio(@RequestBody AudioChunk audioChunk,
+                            @RequestHeader(value = SessionRouter.FORWARDED_HEADER, required = false) String forwardedBy) {
+        log.info("📥 HTTP: Audio received - Session: {}, Seq: {}, Size: {} bytes", 
+                 audioChunk.getSessionId(), 
+                 audioChunk.getSequence(),
                  audioChunk.getAudioData() != null ? audioChunk.getAudioData().length() : 0);
 
-        CompletableFuture.runAsync(() -> {
-            try {
-                // ✅ BƯỚC 1: Dùng Whisper auto-detect thay vì language hint
-                WhisperService.TranscriptionResult result = whisperService.transcribeWithDetection(
-                    audioChunk.getAudioData()
-                );
-
-                if (result == null || result.text == null || result.text.trim().isEmpty()) {
-                    log.warn("⚠️ Empty transcription");
-                    return;
-                }
-
-                String transcribedText = result.text;
-                String whisperDetectedLang = result.detectedLanguage;
-                
-                log.info("📝 Whisper result: [{}] {}", whisperDetectedLang, transcribedText);
-
-                // ✅ BƯỚC 2: Check duplicate
-                Set<String> sessionTexts = processedTexts.computeIfAbsent(
-                    sessionId, 
-                    k -> new ConcurrentSkipListSet<>()
-                );
-                
-                String textKey = transcribedText.toLowerCase().trim();
-                if (sessionTexts.contains(textKey)) {
-                    log.warn("⚠️ DUPLICATE detected, skipping: {}", transcribedText);
-                    return;
-                }
-                sessionTexts.add(textKey);
-
-                // ✅ BƯỚC 3: Verify language với pattern detection (backup)
-                String verifiedLang = languageDetectionService.verifyLanguage(
-                    transcribedText, 
-                    whisperDetectedLang,
-                    audioChunk.getLanguage()
-                );
-                
-                log.info("🔍 Verified language: {}", verifiedLang);
-
-                // ✅ BƯỚC 4: Send partial caption
-                PartialCaptionDTO partialCaption = new PartialCaptionDTO(
-                    transcribedText,
-                    verifiedLang,
-                    System.currentTimeMillis(),
-                    sessionId
-                );
-                
-                messagingTemplate.convertAndSend("/topic/partial", partialCaption);
-
-                // ✅ BƯỚC 5: Determine target language
-                String targetLang = determineTargetLanguage(
-                    sessionId,
-                    verifiedLang,
-                    audioChunk.getLanguage()
-                );
-
-                // ✅ BƯỚC 6: Translate
-                String translatedText = translationService.translate(
-                    transcribedText,
-                    verifiedLang,
-                    targetLang
-                );
-
-                // ✅ BƯỚC 7: Send final translation
-                FinalTranslationDTO finalTranslation = new FinalTranslationDTO(
-                    UUID.randomUUID().toString(),
-                    transcribedText,
-                    verifiedLang,
-                    translatedText,
-                    targetLang,
-                    System.currentTimeMillis(),
-                    sessionId
-                );
-                
-                messagingTemplate.convertAndSend("/topic/final", finalTranslation);
-                
-                log.info("✅ Complete: {} ({}) → {} ({})", 
-                         transcribedText, verifiedLang, translatedText, targetLang);
+        if (sessionRouter.forwardToOwner(audioChunk.getSessionId(), "/api/audio/upload", audioChunk, forwardedBy != null)) {
+            return;
+        }
 
-            } catch (Exception e) {
-                log.error("❌ Error processing audio", e);
-            }
-        });
+        // Chunks run in parallel, captions come out in sequence order
+        captionPipelineService.submit(audioChunk);
     }
 
     @PostMapping("/session/init")
-    public void initSession(@RequestBody SessionInit sessionInit) {
+    public void initSession(@RequestBody SessionInit sessionInit,
+                            @RequestHeader(value = SessionRouter.FORWARDED_HEADER, required = false) String forwardedBy) {
+        if (sessionRouter.forwardToOwner(sessionInit.getSessionId(), "/api/session/init", sessionInit, forwardedBy != null)) {
+            return;
+        }
+
         log.info("🎬 Init session: {} ↔ {}", 
                  sessionInit.getLanguage1(), 
                  sessionInit.getLanguage2());
         
-        sessionLanguages.put(
+        // Also resets duplicate detection for this session
+        sessionStateStore.initSession(
             sessionInit.getSessionId(), 
             new LanguagePair(sessionInit.getLanguage1(), sessionInit.getLanguage2())
         );
-        
-        // Clear duplicate detection for this session
-        processedTexts.put(sessionInit.getSessionId(), new ConcurrentSkipListSet<>());
+        sessionContextService.clear(sessionInit.getSessionId());
+        revisionTracker.forgetSession(sessionInit.getSessionId());
+        captionPipelineService.reset(sessionInit.getSessionId());
     }
 
     @PostMapping("/session/clear")
-    public void clearSession(@RequestBody SessionInit sessionInit) {
+    public void clearSession(@RequestBody SessionInit sessionInit,
+                             @RequestHeader(value = SessionRouter.FORWARDED_HEADER, required = false) String forwardedBy) {
         String sessionId = sessionInit.getSessionId();
-        processedTexts.remove(sessionId);
-        sessionLanguages.remove(sessionId);
-        log.info("🗑️ Cleared session: {}", sessionId);
-    }
-
-    private String determineTargetLanguage(String sessionId, String detectedLang, String hintLang) {
-        LanguagePair pair = sessionLanguages.get(sessionId);
-        
-        if (pair == null) {
-            // Nếu không có pair, dịch sang ngôn ngữ còn lại
-            return detectedLang.equalsIgnoreCase(hintLang) 
-                ? getOppositeLanguage(hintLang) 
-                : hintLang;
+        if (sessionRouter.forwardToOwner(sessionId, "/api/session/clear", sessionInit, forwardedBy != null)) {
+            return;
         }
-        
-        // Dịch sang ngôn ngữ kia trong cặp
-        return detectedLang.equalsIgnoreCase(pair.getLang1()) 
-            ? pair.getLang2() 
-            : pair.getLang1();
-    }
 
-    private String getOppositeLanguage(String lang) {
-        return switch (lang.toLowerCase()) {
-            case "vi", "vie" -> "ja";
-            case "ja", "jpn" -> "vi";
-            case "en", "eng" -> "vi";
-            default -> "en";
-        };
+        sessionStateStore.clearSession(sessionId);
+        sessionContextService.clear(sessionId);
+        revisionTracker.forgetSession(sessionId);
+        captionPipelineService.reset(sessionId);
+        // Audio stays journaled for reprocessing until retention removes it
+        audioJournalService.close(sessionId);
+        log.info("🗑️ Cleared session: {}", sessionId);
     }
 
     @lombok.Data
@@ -183,11 +92,4 @@ public class AudioRestController {
         private String language1;
         private String language2;
     }
-
-    @lombok.Data
-    @lombok.AllArgsConstructor
-    private static class LanguagePair {
-        private String lang1;
-        private String lang2;
-    }
 }
\ No newline at end of file
@@ -0,0 +1,62 @@
+package com.translator.backend.controller;
+
+import com.translator.backend.model.BatchJob;
+import com.translator.backend.service.BatchReprocessService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Collection;
+
+/**
+ * Offline reprocessing of journaled sessions (better transcript after the meeting)
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/batch")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class BatchController {
+
+    private final BatchReprocessService batchReprocessService;
+
+    @PostMapping
+    public ResponseEntity<BatchJob> start(@RequestBody BatchRequest request) {
+        log.info("📦 Batch request for session {}", request.getSessionId());
+        if (request.getSessionId() == null || request.getSessionId().isBlank()) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.accepted().body(batchReprocessService.start(
+            request.getSessionId(),
+            request.getLanguage1(),
+            request.getLanguage2()
+        ));
+    }
+
+    @GetMapping
+    public Collection<BatchJob> list() {
+        return batchReprocessService.list();
+    }
+
+    @GetMapping("/{jobId}")
+    public ResponseEntity<BatchJob> get(@PathVariable String jobId) {
+        BatchJob job = batchReprocessService.get(jobId);
+        return job != null ? ResponseEntity.ok(job) : ResponseEntity.notFound().build();
+    }
+
+    @PostMapping("/{jobId}/resume")
+    public ResponseEntity<BatchJob> resume(@PathVariable String jobId) {
+        BatchJob job = batchReprocessService.resume(jobId);
+        return job != null ? ResponseEntity.accepted().body(job) : ResponseEntity.notFound().build();
+    }
+
+    @lombok.Data
+    @lombok.NoArgsConstructor
+    @lombok.AllArgsConstructor
+    public static class BatchRequest {
+        private String sessionId;
+        private String language1;   // optional, defaults to the session's pair
+        private String language2;
+    }
+}
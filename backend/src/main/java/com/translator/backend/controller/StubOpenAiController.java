@@ -0,0 +1,78 @@
+package com.translator.backend.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.translator.backend.util.WavUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Local stand-in for the OpenAI transcription and chat endpoints (profile "stub"),
+ * so the live pipeline and batch jobs can run without an API key or cost.
+ * Answers are canned and every call sleeps to imitate upstream latency.
+ */
+@Slf4j
+@Profile("stub")
+@RestController
+@RequestMapping("/stub/v1")
+public class StubOpenAiController {
+
+    @Value("${stub.asr.latency-ms:300}")
+    private long asrLatencyMs;
+
+    @Value("${stub.translation.latency-ms:150}")
+    private long translationLatencyMs;
+
+    @Value("${stub.asr.language:english}")
+    private String asrLanguage;
+
+    @PostMapping("/audio/transcriptions")
+    public Map<String, Object> transcribe(@RequestParam("file") MultipartFile file,
+                                          @RequestParam(value = "model", required = false) String model) throws Exception {
+        byte[] wav = file.getBytes();
+        double seconds = 0;
+        try {
+            seconds = WavUtils.readFormat(wav).durationMs(WavUtils.findDataChunk(wav)[1]) / 1000.0;
+        } catch (IllegalArgumentException e) {
+            log.debug("Stub ASR got non-WAV audio: {}", e.getMessage());
+        }
+
+        Thread.sleep(asrLatencyMs);
+        return Map.of(
+            "text", String.format("Stub transcript of %.1f seconds of audio.", seconds),
+            "language", asrLanguage,
+            "duration", seconds
+        );
+    }
+
+    @PostMapping("/chat/completions")
+    public Map<String, Object> complete(@RequestBody JsonNode request) throws Exception {
+        JsonNode messages = request.path("messages");
+        String prompt = messages.path(messages.size() - 1).path("content").asText();
+        // "Translate from X to Y:\n<text>"
+        int newline = prompt.indexOf('\n');
+        String header = newline > 0 ? prompt.substring(0, newline) : "";
+        String text = newline > 0 ? prompt.substring(newline + 1) : prompt;
+        String target = header.contains(" to ") ? header.substring(header.lastIndexOf(" to ") + 4).replace(":", "") : "?";
+
+        Thread.sleep(translationLatencyMs);
+        return Map.of(
+            "model", request.path("model").asText(),
+            "choices", List.of(Map.of(
+                "index", 0,
+                "message", Map.of("role", "assistant", "content", "[" + target + "] " + text),
+                "finish_reason", "stop"
+            )),
+            "usage", Map.of(
+                "prompt_tokens", prompt.length() / 4,
+                "completion_tokens", text.length() / 4,
+                "prompt_tokens_details", Map.of("cached_tokens", 0)
+            )
+        );
+    }
+}
@@ -1,11 +1,19 @@
 package com.translator.backend.controller;
 
+import com.translator.backend.service.SegmentRevisionTracker;
+import com.translator.backend.service.TranslationMemoryService;
 import com.translator.backend.service.TranslationService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 @Slf4j
 @RestController
@@ -15,23 +23,108 @@ import java.util.Map;
 public class TranslationController {
 
     private final TranslationService translationService;
+    private final TranslationMemoryService translationMemoryService;
+    private final SegmentRevisionTracker revisionTracker;
+    private final ThreadPoolExecutor translationExecutor;
+    private final ScheduledExecutorService pipelineScheduler;
+
+    @Value("${translation.revision.debounce-ms:250}")
+    private long debounceMs;
 
     /**
      * Direct translation endpoint (no transcription)
      * For use with Web Speech API frontend
+     *
+     * Requests with segmentId/revision: interim revisions are debounced and
+     * older revisions of the same segment are cancelled (response has superseded=true).
+     * A final whose text equals the last translated interim reuses that translation.
      */
     @PostMapping("/translate")
-    public Map<String, String> translate(@RequestBody TranslationRequest request) {
-        log.info("📥 Translation request: {} ({}) → ({})", 
+    public CompletableFuture<Map<String, Object>> translate(@RequestBody TranslationRequest request) {
+        log.info("📥 Translation request: {} ({}) → ({}) segment={} rev={}", 
                  request.getText(), 
                  request.getSourceLang(), 
-                 request.getTargetLang());
+                 request.getTargetLang(),
+                 request.getSegmentId(),
+                 request.getRevision());
+
+        if (request.getSegmentId() == null) {
+            return CompletableFuture.completedFuture(doTranslate(request, null));
+        }
+
+        SegmentRevisionTracker.Ticket ticket = revisionTracker.register(
+            request.getSessionId(),
+            request.getSegmentId(),
+            request.getRevision(),
+            request.isFinalResult(),
+            request.getText()
+        );
+
+        if (request.isFinalResult()) {
+            return CompletableFuture.completedFuture(translateRevision(request, ticket));
+        }
+
+        // Interim revision: wait a bit, a newer revision will likely replace it
+        CompletableFuture<Map<String, Object>> future = new CompletableFuture<>();
+        pipelineScheduler.schedule(() -> {
+            try {
+                translationExecutor.execute(() -> {
+                    try {
+                        future.complete(translateRevision(request, ticket));
+                    } catch (Throwable e) {
+                        revisionTracker.complete(ticket, null);
+                        future.completeExceptionally(e);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                // Pool saturated: drop this interim revision, the final one is translated inline
+                log.warn("⚠️ Translation pool busy, dropping segment={} rev={}",
+                         request.getSegmentId(), request.getRevision());
+                revisionTracker.complete(ticket, null);
+                future.complete(superseded(request));
+            }
+        }, debounceMs, TimeUnit.MILLISECONDS);
+        return future;
+    }
 
+    /**
+     * Translate one revision and hand the outcome back to the tracker
+     */
+    private Map<String, Object> translateRevision(TranslationRequest request, SegmentRevisionTracker.Ticket ticket) {
+        if (ticket.isCancelled()) {
+            revisionTracker.complete(ticket, null);
+            return superseded(request);
+        }
+        Map<String, Object> result = doTranslate(request, ticket);
+        if (ticket.isCancelled()) {
+            revisionTracker.complete(ticket, null);
+            return superseded(request);
+        }
+        // translate() falls back to the original text on failure: never reuse that
+        String translation = (String) result.get("translation");
+        boolean reusable = !result.containsKey("error") && translation != null && !translation.equals(request.getText());
+        revisionTracker.complete(ticket, reusable ? translation : null);
+        return result;
+    }
+
+    private Map<String, Object> superseded(TranslationRequest request) {
+        log.debug("⏭️ Superseded: segment={} rev={}", request.getSegmentId(), request.getRevision());
+        return Map.of(
+            "originalText", request.getText(),
+            "segmentId", request.getSegmentId(),
+            "revision", request.getRevision(),
+            "superseded", true
+        );
+    }
+
+    private Map<String, Object> doTranslate(TranslationRequest request, SegmentRevisionTracker.Ticket ticket) {
         try {
             String translation = translationService.translate(
+                request.getSessionId(),
                 request.getText(),
                 request.getSourceLang(),
-                request.getTargetLang()
+                request.getTargetLang(),
+                ticket
             );
 
             log.info("✅ Translation result: {}", translation);
@@ -53,6 +146,26 @@ public class TranslationController {
         }
     }
 
+    /**
+     * Save an approved translation to the translation memory
+     * (reused across sessions, exact matches skip GPT)
+     */
+    @PostMapping("/memory")
+    public Map<String, Object> approveTranslation(@RequestBody MemoryEntryRequest request) {
+        log.info("📚 Approve: {} ({}) → {} ({})",
+                 request.getSourceText(), request.getSourceLang(),
+                 request.getTranslatedText(), request.getTargetLang());
+
+        translationMemoryService.approve(
+            request.getSourceText(),
+            request.getSourceLang(),
+            request.getTranslatedText(),
+            request.getTargetLang()
+        );
+
+        return Map.of("entries", translationMemoryService.size());
+    }
+
     @lombok.Data
     @lombok.NoArgsConstructor
     @lombok.AllArgsConstructor
@@ -61,5 +174,18 @@ public class TranslationController {
         private String sourceLang;
         private String targetLang;
         private String sessionId;
+        private String segmentId;   // optional: speech segment being refined
+        private long revision;      // increases with every interim refinement
+        private boolean finalResult;
+    }
+
+    @lombok.Data
+    @lombok.NoArgsConstructor
+    @lombok.AllArgsConstructor
+    public static class MemoryEntryRequest {
+        private String sourceText;
+        private String sourceLang;
+        private String translatedText;
+        private String targetLang;
     }
 }
\ No newline at end of file
@@ -12,4 +12,5 @@ public class AudioChunk {
     private String audioData; // Base64 encoded
     private String language;
     private long timestamp;
+    private Long sequence; // Monotonic per session, starts at 0 (null = unordered)
 }
\ No newline at end of file
@@ -0,0 +1,57 @@
+package com.translator.backend.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Offline re-transcription/re-translation of a journaled session.
+ * Serialized as-is to the job's checkpoint file.
+ */
+@Data
+@NoArgsConstructor
+public class BatchJob {
+
+    public enum Status { RUNNING, COMPLETED, FAILED, INTERRUPTED }
+
+    private String jobId;
+    private String sessionId;
+    private String language1;
+    private String language2;
+    private Status status;
+    private String error;
+
+    // Journal records covered by the job (audio appended later is ignored on resume)
+    private int recordCount;
+    // Identify those records, so a resume notices when retention has rotated them away
+    private long firstSequence;
+    private long lastSequence;
+    private Long audioChecksum;     // CRC32C of their audio, null in checkpoints from older versions
+    private List<Segment> segments = new ArrayList<>();
+
+    private long createdAt;
+    private long finishedAt;
+    private double audioSeconds;
+    private double wallSeconds;
+    private double audioMinutesPerMinute;
+
+    @Data
+    @NoArgsConstructor
+    public static class Segment {
+        private int index;
+        private long startMs;
+        private long endMs;
+        private String text;            // null until transcribed
+        private String language;
+        private String translatedText;  // null until translated
+        private String targetLanguage;
+
+        public Segment(int index, long startMs, long endMs) {
+            this.index = index;
+            this.startMs = startMs;
+            this.endMs = endMs;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.translator.backend.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LanguagePair {
+    private String lang1;
+    private String lang2;
+}
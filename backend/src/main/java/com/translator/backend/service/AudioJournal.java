@@ -0,0 +1,305 @@
+package com.translator.backend.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only audio journal of one session, stored as memory-mapped segment files.
+ *
+ * A segment is a preallocated data file ({@code N.seg}) plus a fixed-size index
+ * ({@code N.idx}) with one 16-byte slot per record: sequence, data offset, flags.
+ * Appends copy the audio straight into the mapped page cache (no write syscall,
+ * nothing kept on the Java heap); a record becomes visible once its index slot
+ * is written, which happens last. The page cache survives a JVM crash, not an
+ * OS crash. Segments rotate when either file is full and only the newest
+ * maxSegments are kept.
+ */
+@Slf4j
+public class AudioJournal {
+
+    public static final long NO_SEQUENCE = -1;
+
+    // crc, audio length, sequence, timestamp, language length
+    private static final int RECORD_HEADER_SIZE = 4 + 4 + 8 + 8 + 1;
+    // sequence, data offset, flags
+    private static final int SLOT_SIZE = 8 + 4 + 4;
+    private static final int FLAGS_OFFSET = 12;
+
+    private static final int FLAG_WRITTEN = 1;
+    private static final int FLAG_PROCESSED = 2;
+
+    private static final String DATA_SUFFIX = ".seg";
+    private static final String INDEX_SUFFIX = ".idx";
+
+    private final Path dir;
+    private final int segmentSize;
+    private final int indexSlots;
+    private final int maxSegments;
+
+    // Segment ids on disk, oldest first
+    private final ArrayDeque<Long> segmentIds = new ArrayDeque<>();
+    private Segment current;
+    private volatile long lastAppendMillis = System.currentTimeMillis();
+
+    public AudioJournal(Path dir, int segmentSize, int indexSlots, int maxSegments) throws IOException {
+        this.dir = dir;
+        this.segmentSize = segmentSize;
+        this.indexSlots = indexSlots;
+        this.maxSegments = maxSegments;
+
+        Files.createDirectories(dir);
+        segmentIds.addAll(listSegmentIds(dir));
+    }
+
+    /**
+     * @param sequence chunk sequence number or NO_SEQUENCE
+     * @return handle to flag the record as processed once captions are out
+     */
+    public synchronized Handle append(long sequence, long timestamp, String language, byte[] audio) throws IOException {
+        byte[] lang = language != null ? language.getBytes(StandardCharsets.UTF_8) : new byte[0];
+        if (lang.length > 255) {
+            throw new IllegalArgumentException("Language tag too long");
+        }
+        int recordSize = RECORD_HEADER_SIZE + lang.length + audio.length;
+        if (recordSize > segmentSize) {
+            throw new IllegalArgumentException("Audio chunk of " + audio.length + " bytes exceeds journal segment size");
+        }
+
+        if (current == null || !current.fits(recordSize)) {
+            rotate();
+        }
+
+        Segment segment = current;
+        MappedByteBuffer data = segment.data;
+        int offset = segment.writePosition;
+
+        data.putInt(offset + 4, audio.length);
+        data.putLong(offset + 8, sequence);
+        data.putLong(offset + 16, timestamp);
+        data.put(offset + 24, (byte) lang.length);
+        data.put(offset + RECORD_HEADER_SIZE, lang);
+        data.put(offset + RECORD_HEADER_SIZE + lang.length, audio);
+        data.putInt(offset, crc(data, offset, recordSize));
+
+        // Publish: the index slot is written last
+        int slot = segment.slotCount * SLOT_SIZE;
+        segment.index.putLong(slot, sequence);
+        segment.index.putInt(slot + 8, offset);
+        segment.index.putInt(slot + FLAGS_OFFSET, FLAG_WRITTEN);
+
+        segment.writePosition += recordSize;
+        segment.slotCount++;
+        lastAppendMillis = System.currentTimeMillis();
+        return new Handle(segment.index, slot);
+    }
+
+    /**
+     * Flush dirty pages of the open segment to disk
+     */
+    public synchronized void close() {
+        if (current != null) {
+            current.force();
+            current = null;
+        }
+    }
+
+    public long lastAppendMillis() {
+        return lastAppendMillis;
+    }
+
+    public synchronized long sizeOnDisk() {
+        return (long) segmentIds.size() * (segmentSize + (long) indexSlots * SLOT_SIZE);
+    }
+
+    /**
+     * Read every intact record of a journal directory in append order.
+     * Audio is a read-only view of the mapped segment, copied only when needed.
+     */
+    public static void scan(Path dir, Consumer<JournalRecord> consumer) throws IOException {
+        for (long id : listSegmentIds(dir)) {
+            Path dataPath = dir.resolve(fileName(id, DATA_SUFFIX));
+            Path indexPath = dir.resolve(fileName(id, INDEX_SUFFIX));
+            if (!Files.exists(dataPath) || !Files.exists(indexPath)) {
+                continue;
+            }
+
+            MappedByteBuffer data = map(dataPath, Files.size(dataPath));
+            MappedByteBuffer index = map(indexPath, Files.size(indexPath));
+
+            for (int slot = 0; slot + SLOT_SIZE <= index.capacity(); slot += SLOT_SIZE) {
+                int flags = index.getInt(slot + FLAGS_OFFSET);
+                if ((flags & FLAG_WRITTEN) == 0) {
+                    break;
+                }
+
+                int offset = index.getInt(slot + 8);
+                JournalRecord record = readRecord(data, offset, new Handle(index, slot),
+                        (flags & FLAG_PROCESSED) != 0);
+                if (record == null) {
+                    log.warn("⚠️ Corrupt journal record {} #{}, skipping", dataPath, slot / SLOT_SIZE);
+                    continue;
+                }
+                consumer.accept(record);
+            }
+        }
+    }
+
+    private static JournalRecord readRecord(MappedByteBuffer data, int offset, Handle handle, boolean processed) {
+        if (offset < 0 || offset + RECORD_HEADER_SIZE > data.capacity()) {
+            return null;
+        }
+        int audioLength = data.getInt(offset + 4);
+        int langLength = data.get(offset + 24) & 0xFF;
+        int recordSize = RECORD_HEADER_SIZE + langLength + audioLength;
+        if (audioLength < 0 || offset + recordSize > data.capacity()
+                || crc(data, offset, recordSize) != data.getInt(offset)) {
+            return null;
+        }
+
+        byte[] lang = new byte[langLength];
+        data.get(offset + RECORD_HEADER_SIZE, lang);
+        ByteBuffer audio = data.slice(offset + RECORD_HEADER_SIZE + langLength, audioLength).asReadOnlyBuffer();
+
+        return new JournalRecord(
+                data.getLong(offset + 8),
+                data.getLong(offset + 16),
+                langLength > 0 ? new String(lang, StandardCharsets.UTF_8) : null,
+                audio,
+                processed,
+                handle
+        );
+    }
+
+    private void rotate() throws IOException {
+        if (current != null) {
+            current.force();
+        }
+
+        long id = segmentIds.isEmpty() ? 0 : segmentIds.peekLast() + 1;
+        current = new Segment(
+                map(dir.resolve(fileName(id, DATA_SUFFIX)), segmentSize),
+                map(dir.resolve(fileName(id, INDEX_SUFFIX)), (long) indexSlots * SLOT_SIZE)
+        );
+        segmentIds.addLast(id);
+
+        while (segmentIds.size() > maxSegments) {
+            long oldest = segmentIds.peekFirst();
+            try {
+                Files.deleteIfExists(dir.resolve(fileName(oldest, DATA_SUFFIX)));
+                Files.deleteIfExists(dir.resolve(fileName(oldest, INDEX_SUFFIX)));
+                segmentIds.pollFirst();
+            } catch (IOException e) {
+                // e.g. still mapped on Windows, retried on the next rotation
+                log.debug("Cannot delete journal segment {} yet: {}", oldest, e.getMessage());
+                break;
+            }
+        }
+    }
+
+    private static MappedByteBuffer map(Path path, long size) throws IOException {
+        // The mapping stays valid after the channel is closed
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+    }
+
+    /**
+     * CRC over everything after the CRC field, computed on the mapped memory directly
+     */
+    private static int crc(MappedByteBuffer data, int offset, int recordSize) {
+        CRC32C crc = new CRC32C();
+        crc.update(data.slice(offset + 4, recordSize - 4));
+        return (int) crc.getValue();
+    }
+
+    private static List<Long> listSegmentIds(Path dir) throws IOException {
+        if (!Files.isDirectory(dir)) {
+            return List.of();
+        }
+        List<Long> ids = new ArrayList<>();
+        try (Stream<Path> files = Files.list(dir)) {
+            files.map(path -> path.getFileName().toString())
+                 .filter(name -> name.endsWith(DATA_SUFFIX))
+                 .forEach(name -> {
+                     try {
+                         ids.add(Long.parseLong(name.substring(0, name.length() - DATA_SUFFIX.length())));
+                     } catch (NumberFormatException ignored) {
+                         // not a segment
+                     }
+                 });
+        }
+        ids.sort(null);
+        return ids;
+    }
+
+    private static String fileName(long id, String suffix) {
+        return String.format("%010d%s", id, suffix);
+    }
+
+    private final class Segment {
+        final MappedByteBuffer data;
+        final MappedByteBuffer index;
+        int writePosition;
+        int slotCount;
+
+        Segment(MappedByteBuffer data, MappedByteBuffer index) {
+            this.data = data;
+            this.index = index;
+        }
+
+        boolean fits(int recordSize) {
+            return writePosition + recordSize <= segmentSize && slotCount < indexSlots;
+        }
+
+        void force() {
+            data.force(0, writePosition);
+            index.force(0, slotCount * SLOT_SIZE);
+        }
+    }
+
+    /**
+     * Points at a record's index slot
+     */
+    public static final class Handle {
+        private final MappedByteBuffer index;
+        private final int slot;
+
+        Handle(MappedByteBuffer index, int slot) {
+            this.index = index;
+            this.slot = slot;
+        }
+
+        public void markProcessed() {
+            index.putInt(slot + FLAGS_OFFSET, FLAG_WRITTEN | FLAG_PROCESSED);
+        }
+    }
+
+    /**
+     * @param sequence NO_SEQUENCE for unordered chunks
+     * @param audio    read-only view of the mapped segment
+     */
+    public record JournalRecord(long sequence, long timestamp, String language, ByteBuffer audio,
+                                boolean processed, Handle handle) {
+
+        public byte[] audioBytes() {
+            byte[] bytes = new byte[audio.remaining()];
+            audio.duplicate().get(bytes);
+            return bytes;
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package com.translator.backend.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+
+/**
+ * Keeps the raw audio of every session in an {@link AudioJournal} so chunks
+ * lost to a crash or upstream outage can be replayed, and whole sessions
+ * reprocessed later.
+ *
+ * One directory per session (base64url of the session id). Journaling never
+ * fails an upload: errors are logged and the chunk is processed unjournaled.
+ */
+@Slf4j
+@Service
+public class AudioJournalService {
+
+    @Value("${journal.enabled:true}")
+    private boolean enabled;
+
+    @Value("${journal.dir:data/journal}")
+    private String journalDir;
+
+    @Value("${journal.segment-size:16MB}")
+    private DataSize segmentSize;
+
+    /** Records per segment (16 bytes of index each) */
+    @Value("${journal.index-slots:4096}")
+    private int indexSlots;
+
+    /** Per session, oldest segments are deleted beyond this */
+    @Value("${journal.retention.max-segments:32}")
+    private int maxSegments;
+
+    /** Sessions without new audio for this long are deleted */
+    @Value("${journal.retention.max-age:24h}")
+    private Duration maxAge;
+
+    private final ScheduledExecutorService scheduler;
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentHashMap<String, AudioJournal> journals = new ConcurrentHashMap<>();
+
+    private Timer appendTimer;
+    private DistributionSummary appendBytes;
+
+    public AudioJournalService(ScheduledExecutorService pipelineScheduler, MeterRegistry meterRegistry) {
+        this.scheduler = pipelineScheduler;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    void start() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        Files.createDirectories(Path.of(journalDir));
+
+        appendTimer = Timer.builder("journal.append").register(meterRegistry);
+        appendBytes = DistributionSummary.builder("journal.append.bytes").baseUnit("bytes").register(meterRegistry);
+        Gauge.builder("journal.sessions", journals, ConcurrentHashMap::size).register(meterRegistry);
+        Gauge.builder("journal.size", this, AudioJournalService::sizeOnDisk).baseUnit("bytes").register(meterRegistry);
+
+        long sweepMs = Math.min(maxAge.toMillis(), TimeUnit.HOURS.toMillis(1));
+        scheduler.scheduleWithFixedDelay(this::deleteExpired, sweepMs, sweepMs, TimeUnit.MILLISECONDS);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @param sequence chunk sequence number, null if unordered
+     * @return handle to mark the chunk processed, null if not journaled
+     */
+    public AudioJournal.Handle append(String sessionId, Long sequence, long timestamp,
+                                      String language, byte[] audio) {
+        if (!enabled) {
+            return null;
+        }
+
+        long start = System.nanoTime();
+        try {
+            AudioJournal.Handle handle = journal(sessionId).append(
+                    sequence != null ? sequence : AudioJournal.NO_SEQUENCE,
+                    timestamp, language, audio);
+            appendTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            appendBytes.record(audio.length);
+            return handle;
+        } catch (Exception e) {
+            log.error("❌ Cannot journal audio of session {}", sessionId, e);
+            return null;
+        }
+    }
+
+    /**
+     * Hand every record not yet marked processed to the consumer, session by session in append order
+     */
+    public void replayUnprocessed(BiConsumer<String, Unprocessed> consumer) {
+        if (!enabled) {
+            return;
+        }
+
+        for (Path dir : sessionDirs()) {
+            String sessionId = sessionId(dir);
+            if (sessionId == null) {
+                continue;
+            }
+
+            List<AudioJournal.JournalRecord> pending = new ArrayList<>();
+            long[] lastSequence = {AudioJournal.NO_SEQUENCE};
+            try {
+                AudioJournal.scan(dir, record -> {
+                    if (!record.processed()) {
+                        pending.add(record);
+                    }
+                    lastSequence[0] = Math.max(lastSequence[0], record.sequence());
+                });
+            } catch (IOException e) {
+                log.error("❌ Cannot read journal of session {}", sessionId, e);
+                continue;
+            }
+
+            if (!pending.isEmpty()) {
+                log.info("♻️ {} unprocessed chunks in journal of session {}", pending.size(), sessionId);
+                meterRegistry.counter("journal.unprocessed").increment(pending.size());
+                consumer.accept(sessionId, new Unprocessed(pending, lastSequence[0]));
+            }
+        }
+    }
+
+    /**
+     * @param records      unprocessed records in append order
+     * @param lastSequence highest sequence journaled for the session, processed or not
+     */
+    public record Unprocessed(List<AudioJournal.JournalRecord> records, long lastSequence) {
+    }
+
+    /**
+     * Every record of a session in append order, processed or not (reprocessing)
+     */
+    public List<AudioJournal.JournalRecord> read(String sessionId) throws IOException {
+        List<AudioJournal.JournalRecord> records = new ArrayList<>();
+        AudioJournal.scan(sessionDir(sessionId), records::add);
+        return records;
+    }
+
+    /**
+     * Flush the session's open segment, e.g. when the session ends
+     */
+    public void close(String sessionId) {
+        AudioJournal journal = journals.remove(sessionId);
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        journals.values().forEach(AudioJournal::close);
+        journals.clear();
+    }
+
+    private AudioJournal journal(String sessionId) {
+        return journals.computeIfAbsent(sessionId, id -> {
+            try {
+                return new AudioJournal(sessionDir(id), (int) segmentSize.toBytes(), indexSlots, maxSegments);
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot open journal of session " + id, e);
+            }
+        });
+    }
+
+    private void deleteExpired() {
+        Instant cutoff = Instant.now().minus(maxAge);
+        for (Path dir : sessionDirs()) {
+            String sessionId = sessionId(dir);
+            AudioJournal open = sessionId != null ? journals.get(sessionId) : null;
+            try {
+                // Mapped writes don't reliably touch mtime, so open journals use their last append
+                Instant lastWrite = open != null
+                        ? Instant.ofEpochMilli(open.lastAppendMillis())
+                        : Files.getLastModifiedTime(dir).toInstant();
+                if (lastWrite.isBefore(cutoff)) {
+                    if (sessionId != null) {
+                        close(sessionId);
+                    }
+                    FileSystemUtils.deleteRecursively(dir);
+                    log.info("🗑️ Deleted expired audio journal {}", dir.getFileName());
+                }
+            } catch (IOException e) {
+                log.warn("⚠️ Cannot delete audio journal {}: {}", dir, e.getMessage());
+            }
+        }
+    }
+
+    private long sizeOnDisk() {
+        return journals.values().stream().mapToLong(AudioJournal::sizeOnDisk).sum();
+    }
+
+    private List<Path> sessionDirs() {
+        try (Stream<Path> dirs = Files.list(Path.of(journalDir))) {
+            return dirs.filter(Files::isDirectory).toList();
+        } catch (IOException e) {
+            log.error("❌ Cannot list audio journals in {}", journalDir, e);
+            return List.of();
+        }
+    }
+
+    Path sessionDir(String sessionId) {
+        // Session ids come from clients: encode instead of using them as a path
+        String name = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(sessionId.getBytes(StandardCharsets.UTF_8));
+        return Path.of(journalDir, name);
+    }
+
+    private static String sessionId(Path dir) {
+        try {
+            return new String(Base64.getUrlDecoder().decode(dir.getFileName().toString()), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
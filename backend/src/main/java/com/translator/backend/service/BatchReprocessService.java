@@ -0,0 +1,510 @@
+package com.translator.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.translator.backend.model.BatchJob;
+import com.translator.backend.model.LanguagePair;
+import com.translator.backend.util.RateLimiter;
+import com.translator.backend.util.UtteranceSegmenter;
+import com.translator.backend.util.WavUtils;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Offline reprocessing of a journaled session for a better transcript.
+ *
+ * The session's audio is split into utterances at pauses, then
+ * every utterance is transcribed (batch.whisper-model, in parallel) and
+ * afterwards translated in order with the preceding utterances and their
+ * translations as context (batch.gpt-model). Both phases run on a bounded pool
+ * with per-provider rate limits. Progress is checkpointed to batch.dir after
+ * every utterance, so an interrupted or failed job resumes where it stopped;
+ * a resume refuses to run if the journaled audio no longer matches. The PCM
+ * is read from the mapped journal segments, never joined on the heap: only the
+ * utterance being sent is copied.
+ */
+@Slf4j
+@Service
+public class BatchReprocessService {
+
+    @Value("${batch.dir:data/batch}")
+    private String batchDir;
+
+    @Value("${batch.whisper-model:${openai.whisper.model}}")
+    private String whisperModel;
+
+    @Value("${batch.gpt-model:${openai.gpt.model}}")
+    private String gptModel;
+
+    @Value("${batch.asr.requests-per-minute:50}")
+    private double asrRequestsPerMinute;
+
+    @Value("${batch.translation.requests-per-minute:500}")
+    private double translationRequestsPerMinute;
+
+    /** Preceding utterances passed to GPT as context */
+    @Value("${batch.context-segments:6}")
+    private int contextSegments;
+
+    @Value("${batch.segment.silence-rms:500}")
+    private int silenceRms;
+
+    @Value("${batch.segment.min-silence-ms:600}")
+    private long minSilenceMs;
+
+    @Value("${batch.segment.min-ms:2000}")
+    private long minSegmentMs;
+
+    @Value("${batch.segment.max-ms:30000}")
+    private long maxSegmentMs;
+
+    private final AudioJournalService audioJournalService;
+    private final WhisperService whisperService;
+    private final TranslationService translationService;
+    private final LanguageDetectionService languageDetectionService;
+    private final SessionStateStore sessionStateStore;
+    private final ObjectMapper objectMapper;
+    private final ThreadPoolExecutor executor;
+
+    private final ConcurrentHashMap<String, BatchJob> jobs = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Boolean> running = new ConcurrentHashMap<>();
+
+    private RateLimiter asrLimiter;
+    private RateLimiter translationLimiter;
+
+    public BatchReprocessService(AudioJournalService audioJournalService,
+                                 WhisperService whisperService,
+                                 TranslationService translationService,
+                                 LanguageDetectionService languageDetectionService,
+                                 SessionStateStore sessionStateStore,
+                                 ObjectMapper objectMapper,
+                                 ThreadPoolExecutor batchExecutor) {
+        this.audioJournalService = audioJournalService;
+        this.whisperService = whisperService;
+        this.translationService = translationService;
+        this.languageDetectionService = languageDetectionService;
+        this.sessionStateStore = sessionStateStore;
+        this.objectMapper = objectMapper;
+        this.executor = batchExecutor;
+    }
+
+    /**
+     * Load checkpoints; jobs that were running when the process stopped become INTERRUPTED
+     */
+    @PostConstruct
+    void init() throws IOException {
+        asrLimiter = new RateLimiter(asrRequestsPerMinute);
+        translationLimiter = new RateLimiter(translationRequestsPerMinute);
+
+        Path dir = Path.of(batchDir);
+        Files.createDirectories(dir);
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : files.filter(f -> f.toString().endsWith(".json")).toList()) {
+                try {
+                    BatchJob job = objectMapper.readValue(file.toFile(), BatchJob.class);
+                    if (job.getStatus() == BatchJob.Status.RUNNING) {
+                        job.setStatus(BatchJob.Status.INTERRUPTED);
+                    }
+                    jobs.put(job.getJobId(), job);
+                } catch (IOException e) {
+                    log.warn("⚠️ Cannot read batch checkpoint {}: {}", file, e.getMessage());
+                }
+            }
+        }
+        if (!jobs.isEmpty()) {
+            log.info("📦 Loaded {} batch jobs", jobs.size());
+        }
+    }
+
+    /**
+     * @param language1 language pair to translate between; null to use the session's pair
+     */
+    public BatchJob start(String sessionId, String language1, String language2) {
+        if (!audioJournalService.isEnabled()) {
+            throw new IllegalStateException("Audio journal is disabled");
+        }
+
+        BatchJob job = new BatchJob();
+        job.setJobId(UUID.randomUUID().toString());
+        job.setSessionId(sessionId);
+        job.setCreatedAt(System.currentTimeMillis());
+
+        if (language1 != null && language2 != null) {
+            job.setLanguage1(language1);
+            job.setLanguage2(language2);
+        } else {
+            LanguagePair pair = sessionStateStore.getLanguages(sessionId);
+            if (pair != null) {
+                job.setLanguage1(pair.getLang1());
+                job.setLanguage2(pair.getLang2());
+            }
+        }
+
+        jobs.put(job.getJobId(), job);
+        log.info("📦 Batch job {} for session {} ({} ↔ {})",
+                 job.getJobId(), sessionId, job.getLanguage1(), job.getLanguage2());
+        run(job);
+        return job;
+    }
+
+    /**
+     * Continue an interrupted or failed job from its checkpoint
+     */
+    public BatchJob resume(String jobId) {
+        BatchJob job = jobs.get(jobId);
+        if (job != null && job.getStatus() != BatchJob.Status.COMPLETED) {
+            log.info("📦 Resuming batch job {}", jobId);
+            run(job);
+        }
+        return job;
+    }
+
+    public BatchJob get(String jobId) {
+        return jobs.get(jobId);
+    }
+
+    public Collection<BatchJob> list() {
+        return jobs.values();
+    }
+
+    private void run(BatchJob job) {
+        if (running.putIfAbsent(job.getJobId(), Boolean.TRUE) != null) {
+            return;
+        }
+
+        Run run = new Run();
+        synchronized (job) {
+            job.setStatus(BatchJob.Status.RUNNING);
+            job.setError(null);
+        }
+        checkpoint(job);
+
+        CompletableFuture
+            .supplyAsync(() -> loadAudio(job), executor)
+            .thenCompose(audio -> CompletableFuture.allOf(job.getSegments().stream()
+                .filter(segment -> segment.getText() == null)
+                .map(segment -> CompletableFuture.runAsync(() -> transcribe(job, audio, segment, run), executor))
+                .toArray(CompletableFuture[]::new)))
+            // Sequential: each utterance's context holds the translations before it
+            .thenRunAsync(() -> job.getSegments().stream()
+                .filter(segment -> needsTranslation(job, segment))
+                .forEach(segment -> translate(job, segment, run)), executor)
+            .whenComplete((v, error) -> finish(job, run, error));
+    }
+
+    private Audio loadAudio(BatchJob job) {
+        List<AudioJournal.JournalRecord> records;
+        try {
+            records = new ArrayList<>(audioJournalService.read(job.getSessionId()));
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot read journal of session " + job.getSessionId(), e);
+        }
+
+        if (records.isEmpty()) {
+            throw new IllegalStateException("No journaled audio for session " + job.getSessionId());
+        }
+
+        synchronized (job) {
+            if (job.getRecordCount() == 0) {
+                job.setRecordCount(records.size());
+                job.setFirstSequence(records.get(0).sequence());
+                job.setLastSequence(records.get(records.size() - 1).sequence());
+                job.setAudioChecksum(checksum(records));
+            }
+        }
+        if (records.size() < job.getRecordCount()) {
+            throw new IllegalStateException("Journal has " + records.size() + " of "
+                    + job.getRecordCount() + " records, audio expired?");
+        }
+        records = records.subList(0, job.getRecordCount());
+        verifySameAudio(job, records);
+
+        // Uploads run in parallel: sequence numbers give the recording order
+        if (records.stream().allMatch(r -> r.sequence() != AudioJournal.NO_SEQUENCE)) {
+            records.sort(Comparator.comparingLong(AudioJournal.JournalRecord::sequence));
+        }
+
+        WavUtils.Format format = null;
+        List<ByteBuffer> pcm = new ArrayList<>(records.size());
+        for (AudioJournal.JournalRecord record : records) {
+            ByteBuffer wav = record.audio();
+            try {
+                WavUtils.Format chunkFormat = WavUtils.readFormat(wav);
+                if (format == null) {
+                    format = chunkFormat;
+                } else if (!format.equals(chunkFormat)) {
+                    log.warn("⚠️ Skipping chunk #{} with different format {}", record.sequence(), chunkFormat);
+                    continue;
+                }
+                int[] data = WavUtils.findDataChunk(wav);
+                pcm.add(wav.slice(wav.position() + data[0], data[1]));
+            } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+                log.warn("⚠️ Skipping unreadable chunk #{}: {}", record.sequence(), e.getMessage());
+            }
+        }
+        if (format == null) {
+            throw new IllegalStateException("No readable audio for session " + job.getSessionId());
+        }
+
+        Audio audio = new Audio(format, pcm);
+
+        synchronized (job) {
+            if (job.getSegments().isEmpty()) {
+                UtteranceSegmenter segmenter = new UtteranceSegmenter(silenceRms, minSilenceMs, minSegmentMs, maxSegmentMs);
+                List<BatchJob.Segment> segments = new ArrayList<>();
+                for (int[] range : segmenter.split(format, pcm)) {
+                    segments.add(new BatchJob.Segment(segments.size(),
+                            format.durationMs(range[0]), format.durationMs(range[1])));
+                }
+                job.setSegments(segments);
+                job.setAudioSeconds(format.durationMs(audio.length()) / 1000.0);
+                log.info("✂️ Batch job {}: {} s of audio → {} utterances",
+                         job.getJobId(), job.getAudioSeconds(), segments.size());
+            }
+        }
+        checkpoint(job);
+        return audio;
+    }
+
+    private void transcribe(BatchJob job, Audio audio, BatchJob.Segment segment, Run run) {
+        try {
+            long start = audio.offset(segment.getStartMs());
+            long end = Math.min(audio.offset(segment.getEndMs()), audio.length());
+            byte[] pcm = audio.read(start, end);
+            byte[] wav = WavUtils.toWav(audio.format(), pcm, 0, pcm.length);
+
+            asrLimiter.acquire();
+            WhisperService.TranscriptionResult result = whisperService.transcribeWithDetection(wav, whisperModel);
+            if (result == null) {
+                run.failures.incrementAndGet();
+                return;
+            }
+            if (result.isRejected()) {
+                // Retrying won't help: keep it as an empty utterance
+                log.warn("⚠️ Batch job {}: utterance {} rejected by ASR", job.getJobId(), segment.getIndex());
+                synchronized (job) {
+                    segment.setText("");
+                }
+                checkpoint(job);
+                return;
+            }
+
+            synchronized (job) {
+                segment.setText(result.text != null ? result.text.trim() : "");
+                segment.setLanguage(languageDetectionService.normalizeLanguageCode(result.detectedLanguage));
+            }
+            run.audioMs.addAndGet(segment.getEndMs() - segment.getStartMs());
+            checkpoint(job);
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            run.failures.incrementAndGet();
+        } catch (Exception e) {
+            log.error("❌ Batch job {}: utterance {} not transcribed", job.getJobId(), segment.getIndex(), e);
+            run.failures.incrementAndGet();
+        }
+    }
+
+    private void translate(BatchJob job, BatchJob.Segment segment, Run run) {
+        try {
+            String targetLang;
+            List<SessionContextService.ContextEntry> context = new ArrayList<>();
+            synchronized (job) {
+                targetLang = segment.getLanguage().equalsIgnoreCase(job.getLanguage1())
+                    ? job.getLanguage2()
+                    : job.getLanguage1();
+
+                List<BatchJob.Segment> segments = job.getSegments();
+                for (int i = Math.max(0, segment.getIndex() - contextSegments); i < segment.getIndex(); i++) {
+                    BatchJob.Segment previous = segments.get(i);
+                    if (previous.getText() != null && !previous.getText().isEmpty()) {
+                        context.add(new SessionContextService.ContextEntry(previous.getText(), previous.getLanguage(),
+                                previous.getTranslatedText(), previous.getTargetLanguage()));
+                    }
+                }
+            }
+
+            translationLimiter.acquire();
+            String translation = translationService.translateWithContext(
+                segment.getText(), segment.getLanguage(), targetLang, context, gptModel
+            );
+            if (translation == null) {
+                run.failures.incrementAndGet();
+                return;
+            }
+
+            synchronized (job) {
+                segment.setTranslatedText(translation);
+                segment.setTargetLanguage(targetLang);
+            }
+            checkpoint(job);
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            run.failures.incrementAndGet();
+        } catch (Exception e) {
+            log.error("❌ Batch job {}: utterance {} not translated", job.getJobId(), segment.getIndex(), e);
+            run.failures.incrementAndGet();
+        }
+    }
+
+    /**
+     * Without a language pair the job only re-transcribes
+     */
+    private boolean needsTranslation(BatchJob job, BatchJob.Segment segment) {
+        synchronized (job) {
+            return job.getLanguage1() != null && job.getLanguage2() != null
+                && segment.getText() != null && !segment.getText().isEmpty()
+                && segment.getTranslatedText() == null;
+        }
+    }
+
+    private void finish(BatchJob job, Run run, Throwable error) {
+        double wallSeconds = (System.nanoTime() - run.startNanos) / 1e9;
+        double audioSeconds = run.audioMs.get() / 1000.0;
+
+        synchronized (job) {
+            job.setFinishedAt(System.currentTimeMillis());
+            job.setWallSeconds(wallSeconds);
+            job.setAudioMinutesPerMinute(wallSeconds > 0 ? audioSeconds / wallSeconds : 0);
+
+            if (error != null) {
+                Throwable cause = error.getCause() != null ? error.getCause() : error;
+                job.setStatus(BatchJob.Status.FAILED);
+                job.setError(cause.getMessage());
+            } else if (run.failures.get() > 0) {
+                job.setStatus(BatchJob.Status.FAILED);
+                job.setError(run.failures.get() + " utterances failed, resume to retry");
+            } else {
+                job.setStatus(BatchJob.Status.COMPLETED);
+            }
+        }
+        checkpoint(job);
+        running.remove(job.getJobId());
+
+        log.info("🏁 Batch job {} {}: {} min of audio in {} min wall → {} audio-min/min",
+                 job.getJobId(), job.getStatus(),
+                 String.format("%.1f", audioSeconds / 60), String.format("%.1f", wallSeconds / 60),
+                 String.format("%.2f", job.getAudioMinutesPerMinute()));
+    }
+
+    /**
+     * Write the job atomically (temp file + rename) so a crash never leaves a torn checkpoint
+     */
+    private void checkpoint(BatchJob job) {
+        Path file = Path.of(batchDir, job.getJobId() + ".json");
+        Path temp = Path.of(batchDir, job.getJobId() + ".json.tmp");
+        try {
+            synchronized (job) {
+                Files.write(temp, objectMapper.writeValueAsBytes(job));
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+        } catch (IOException e) {
+            log.error("❌ Cannot checkpoint batch job {}", job.getJobId(), e);
+        }
+    }
+
+    /**
+     * The journal only appends, but retention deletes its oldest segments: on resume
+     * the first recordCount records must still be the ones the segments were cut from
+     */
+    private static void verifySameAudio(BatchJob job, List<AudioJournal.JournalRecord> records) {
+        if (job.getAudioChecksum() == null) {
+            return;
+        }
+        if (records.get(0).sequence() != job.getFirstSequence()
+                || records.get(records.size() - 1).sequence() != job.getLastSequence()
+                || checksum(records) != job.getAudioChecksum()) {
+            throw new IllegalStateException("Journaled audio of session " + job.getSessionId()
+                    + " changed since the job started (expired segments?), start a new job");
+        }
+    }
+
+    private static long checksum(List<AudioJournal.JournalRecord> records) {
+        CRC32C crc = new CRC32C();
+        for (AudioJournal.JournalRecord record : records) {
+            crc.update(record.audio().duplicate());
+        }
+        return crc.getValue();
+    }
+
+    /**
+     * PCM payloads of the journal records, in recording order. Views of the mapped
+     * segments: the mapping outlives retention deleting the files.
+     */
+    private static final class Audio {
+        private final WavUtils.Format format;
+        private final List<ByteBuffer> pcm;
+        // starts[i] = PCM offset of pcm.get(i), starts[size] = total length
+        private final long[] starts;
+
+        Audio(WavUtils.Format format, List<ByteBuffer> pcm) {
+            this.format = format;
+            this.pcm = pcm;
+            this.starts = new long[pcm.size() + 1];
+            for (int i = 0; i < pcm.size(); i++) {
+                starts[i + 1] = starts[i] + pcm.get(i).remaining();
+            }
+        }
+
+        WavUtils.Format format() {
+            return format;
+        }
+
+        long length() {
+            return starts[pcm.size()];
+        }
+
+        long offset(long ms) {
+            long bytes = ms * format.bytesPerSecond() / 1000;
+            return bytes - bytes % format.blockAlign();
+        }
+
+        /**
+         * Copy of the PCM between the offsets, across record boundaries
+         */
+        byte[] read(long start, long end) {
+            byte[] out = new byte[(int) (end - start)];
+            int i = Arrays.binarySearch(starts, start);
+            i = i >= 0 ? Math.min(i, pcm.size() - 1) : -i - 2;
+            int written = 0;
+            for (; written < out.length && i < pcm.size(); i++) {
+                ByteBuffer piece = pcm.get(i);
+                int from = (int) Math.max(0, start - starts[i]);
+                int count = Math.min(piece.remaining() - from, out.length - written);
+                piece.get(piece.position() + from, out, written, count);
+                written += count;
+            }
+            return out;
+        }
+    }
+
+    /**
+     * Progress of one start/resume of a job
+     */
+    private static class Run {
+        final long startNanos = System.nanoTime();
+        final AtomicLong audioMs = new AtomicLong();
+        final AtomicInteger failures = new AtomicInteger();
+    }
+}
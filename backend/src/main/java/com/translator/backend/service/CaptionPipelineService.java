@@ -0,0 +1,484 @@
+package com.translator.backend.service;
+
+import com.translator.backend.dto.FinalTranslationDTO;
+import com.translator.backend.dto.PartialCaptionDTO;
+import com.translator.backend.model.AudioChunk;
+import com.translator.backend.model.LanguagePair;
+import com.translator.backend.util.WavUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.codec.binary.Base64;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Audio chunk → caption pipeline of a session:
+ *
+ *   chunk (parallel ASR) → reorder by chunk sequence → partial caption
+ *        → sentence aggregation → translation (in order per session) → reorder by sentence → final
+ *
+ * Fragments are shown as partial captions right away, but only whole
+ * sentences are translated, one after another per session so the rolling
+ * context is recorded in sentence order. Chunks without a sequence number skip reordering.
+ * Under load, DegradationService may switch on cheaper variants of the steps.
+ *
+ * Every chunk is journaled before processing and marked processed once the
+ * final caption covering it is published (or it has nothing to publish:
+ * silence, duplicate, audio the ASR rejects). Chunks left unprocessed by a
+ * crash or a transient upstream failure are replayed after a restart, but
+ * only when their session comes back, so nobody pays for captions of a
+ * session nobody watches any more.
+ */
+@Slf4j
+@Service
+public class CaptionPipelineService {
+
+    private final WhisperService whisperService;
+    private final TranslationService translationService;
+    private final LanguageDetectionService languageDetectionService;
+    private final SessionStateStore sessionStateStore;
+    private final DegradationService degradationService;
+    private final CaptionPublisher captionPublisher;
+    private final AudioJournalService audioJournalService;
+    private final ThreadPoolExecutor executor;
+    private final ScheduledExecutorService scheduler;
+
+    @Value("${pipeline.reorder.gap-timeout-ms:3000}")
+    private long gapTimeoutMs;
+
+    @Value("${pipeline.sentence.pause-timeout-ms:1500}")
+    private long pauseTimeoutMs;
+
+    @Value("${pipeline.sentence.max-chars:300}")
+    private int maxSentenceChars;
+
+    @Value("${degradation.coalesce.max-chunks:3}")
+    private int coalesceMaxChunks;
+
+    @Value("${degradation.coalesce.window-ms:1200}")
+    private long coalesceWindowMs;
+
+    /** How long unprocessed chunks found on startup wait for their session to come back */
+    @Value("${journal.replay.wait:10m}")
+    private Duration replayWait;
+
+    private final ConcurrentHashMap<String, SessionPipeline> sessions = new ConcurrentHashMap<>();
+    // Bumped for every new SessionPipeline; chunks of an older one are dropped after reset
+    private final AtomicLong generations = new AtomicLong();
+    // Unprocessed journal records found on startup, replayed when their session sends audio again
+    private final ConcurrentHashMap<String, AudioJournalService.Unprocessed> pendingReplays = new ConcurrentHashMap<>();
+
+    public CaptionPipelineService(WhisperService whisperService,
+                                  TranslationService translationService,
+                                  LanguageDetectionService languageDetectionService,
+                                  SessionStateStore sessionStateStore,
+                                  DegradationService degradationService,
+                                  CaptionPublisher captionPublisher,
+                                  AudioJournalService audioJournalService,
+                                  ThreadPoolExecutor audioPipelineExecutor,
+                                  ScheduledExecutorService pipelineScheduler) {
+        this.whisperService = whisperService;
+        this.translationService = translationService;
+        this.languageDetectionService = languageDetectionService;
+        this.sessionStateStore = sessionStateStore;
+        this.degradationService = degradationService;
+        this.captionPublisher = captionPublisher;
+        this.audioJournalService = audioJournalService;
+        this.executor = audioPipelineExecutor;
+        this.scheduler = pipelineScheduler;
+    }
+
+    public void submit(AudioChunk audioChunk) {
+        String sessionId = audioChunk.getSessionId();
+        byte[] audioBytes = Base64.decodeBase64(audioChunk.getAudioData());
+        long timestamp = audioChunk.getTimestamp() > 0 ? audioChunk.getTimestamp() : System.currentTimeMillis();
+
+        AudioJournal.Handle journalHandle = audioJournalService.append(
+            sessionId, audioChunk.getSequence(), timestamp, audioChunk.getLanguage(), audioBytes);
+        SessionPipeline pipeline = pipeline(sessionId);
+        Chunk chunk = new Chunk(audioChunk.getSequence(), audioBytes, audioChunk.getLanguage(),
+                journalHandle, pipeline.generation);
+
+        if (chunk.sequence() != null && degradationService.isActive(DegradationService.Step.COALESCE_AUDIO)) {
+            pipeline.coalesce(chunk);
+            return;
+        }
+
+        CompletableFuture.runAsync(() -> processChunk(sessionId, List.of(chunk), chunk.audio()), executor);
+    }
+
+    /**
+     * Collect chunks the journal holds as unprocessed (crash, upstream outage);
+     * they are replayed by the session's next chunk, or left in the journal
+     * (for batch reprocessing) if it doesn't come back within journal.replay.wait
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadJournal() {
+        audioJournalService.replayUnprocessed((sessionId, unprocessed) -> {
+            pendingReplays.put(sessionId, unprocessed);
+            scheduler.schedule(() -> {
+                if (pendingReplays.remove(sessionId, unprocessed)) {
+                    log.info("💤 Session {} did not come back, {} chunks left unprocessed in the journal",
+                             sessionId, unprocessed.records().size());
+                }
+            }, replayWait.toMillis(), TimeUnit.MILLISECONDS);
+        });
+    }
+
+    private SessionPipeline replay(String sessionId, AudioJournalService.Unprocessed unprocessed) {
+        List<AudioJournal.JournalRecord> records = unprocessed.records();
+        Set<Long> replayed = records.stream()
+            .map(AudioJournal.JournalRecord::sequence)
+            .filter(sequence -> sequence != AudioJournal.NO_SEQUENCE)
+            .collect(Collectors.toSet());
+        long firstSequence = replayed.stream().mapToLong(Long::longValue).min().orElse(0);
+        SessionPipeline pipeline = sessions.computeIfAbsent(sessionId, id -> new SessionPipeline(id, firstSequence));
+
+        // Chunks in between that were processed before the restart must not hold up the reorder buffer
+        if (!replayed.isEmpty()) {
+            for (long sequence = firstSequence; sequence <= unprocessed.lastSequence(); sequence++) {
+                if (!replayed.contains(sequence)) {
+                    pipeline.transcripts.skip(sequence);
+                }
+            }
+        }
+
+        log.info("♻️ Session {} is back, replaying {} unprocessed chunks", sessionId, records.size());
+        for (AudioJournal.JournalRecord record : records) {
+            Chunk chunk = new Chunk(
+                record.sequence() != AudioJournal.NO_SEQUENCE ? record.sequence() : null,
+                record.audioBytes(),
+                record.language(),
+                record.handle(),
+                pipeline.generation
+            );
+            CompletableFuture.runAsync(() -> processChunk(sessionId, List.of(chunk), chunk.audio()), executor);
+        }
+        return pipeline;
+    }
+
+    /**
+     * End a session's pipeline (init / clear): the unfinished sentence is still
+     * translated, chunks still in flight are dropped
+     */
+    public void reset(String sessionId) {
+        pendingReplays.remove(sessionId);
+        SessionPipeline removed = sessions.remove(sessionId);
+        if (removed != null) {
+            removed.close();
+        }
+    }
+
+    /**
+     * @param chunks     chunks covered by the audio (several when coalesced)
+     * @param audioBytes their audio as one WAV
+     */
+    private void processChunk(String sessionId, List<Chunk> chunks, byte[] audioBytes) {
+        SessionPipeline pipeline = current(sessionId, chunks.get(0).generation());
+        if (pipeline == null) {
+            // Session was reset while the chunk waited: its captions are no longer wanted
+            log.debug("⏭️ Dropping stale chunks of session {}", sessionId);
+            chunks.forEach(Chunk::markProcessed);
+            return;
+        }
+        List<Long> sequences = chunks.stream().map(Chunk::sequence).filter(Objects::nonNull).toList();
+        String hintLanguage = chunks.get(chunks.size() - 1).hintLanguage();
+        boolean transcriptSent = false;
+        // Nothing will be published for these chunks, so nothing to wait for
+        boolean done = false;
+
+        try {
+            // ✅ BƯỚC 1: Dùng Whisper auto-detect thay vì language hint
+            WhisperService.TranscriptionResult result = whisperService.transcribeWithDetection(audioBytes);
+
+            if (result == null) {
+                // Transient upstream failure: stays unprocessed in the journal
+                log.warn("⚠️ No transcription result");
+                return;
+            }
+
+            if (result.isRejected()) {
+                log.warn("⚠️ Audio rejected by ASR, not retried");
+                done = true;
+                return;
+            }
+
+            if (result.text == null || result.text.trim().isEmpty()) {
+                log.warn("⚠️ Empty transcription");
+                done = true;
+                return;
+            }
+
+            String transcribedText = result.text;
+            String whisperDetectedLang = result.detectedLanguage;
+
+            log.info("📝 Whisper result: [{}] {}", whisperDetectedLang, transcribedText);
+
+            // ✅ BƯỚC 2: Check duplicate
+            String textKey = transcribedText.toLowerCase().trim();
+            if (!sessionStateStore.markProcessed(sessionId, textKey)) {
+                log.warn("⚠️ DUPLICATE detected, skipping: {}", transcribedText);
+                done = true;
+                return;
+            }
+
+            // ✅ BƯỚC 3: Verify language với pattern detection (backup, skipped under load)
+            String verifiedLang = degradationService.isActive(DegradationService.Step.SKIP_LANGUAGE_VERIFY)
+                ? languageDetectionService.normalizeLanguageCode(whisperDetectedLang)
+                : languageDetectionService.verifyLanguage(transcribedText, whisperDetectedLang, hintLanguage);
+
+            log.info("🔍 Verified language: {}", verifiedLang);
+
+            // ✅ BƯỚC 4: Hand over in chunk order (partial caption + sentence aggregation)
+            Transcript transcript = new Transcript(transcribedText, verifiedLang, hintLanguage,
+                chunks.stream().map(Chunk::journalHandle).filter(Objects::nonNull).toList());
+            if (sequences.isEmpty()) {
+                pipeline.onTranscript(transcript);
+            } else {
+                pipeline.transcripts.offer(sequences.get(0), transcript);
+                sequences.subList(1, sequences.size()).forEach(pipeline.transcripts::skip);
+            }
+            transcriptSent = true;
+
+        } catch (Exception e) {
+            log.error("❌ Error processing audio", e);
+        } finally {
+            if (!transcriptSent) {
+                sequences.forEach(pipeline.transcripts::skip);
+            }
+            if (done) {
+                chunks.forEach(Chunk::markProcessed);
+            }
+        }
+    }
+
+    private void processCoalesced(String sessionId, List<Chunk> chunks) {
+        List<Long> sequences = chunks.stream().map(Chunk::sequence).toList();
+        byte[] merged;
+        try {
+            merged = WavUtils.concat(chunks.stream().map(Chunk::audio).toList());
+        } catch (Exception e) {
+            log.error("❌ Cannot merge audio chunks {}", sequences, e);
+            SessionPipeline pipeline = current(sessionId, chunks.get(0).generation());
+            if (pipeline != null) {
+                sequences.forEach(pipeline.transcripts::skip);
+            }
+            return;
+        }
+
+        log.info("🧩 Coalesced chunks {} into one request ({} bytes)", sequences, merged.length);
+        processChunk(sessionId, chunks, merged);
+    }
+
+    private void translateSentence(SessionPipeline pipeline, SentenceAggregator.Sentence sentence) {
+        String sessionId = pipeline.sessionId;
+        try {
+            // ✅ BƯỚC 5: Determine target language
+            String targetLang = determineTargetLanguage(
+                sessionId,
+                sentence.language(),
+                sentence.hintLanguage()
+            );
+
+            // ✅ BƯỚC 6: Translate the whole sentence
+            String translatedText = translationService.translate(
+                sessionId,
+                sentence.text(),
+                sentence.language(),
+                targetLang
+            );
+
+            // ✅ BƯỚC 7: Send final translation (in sentence order)
+            FinalTranslationDTO finalTranslation = new FinalTranslationDTO(
+                UUID.randomUUID().toString(),
+                sentence.text(),
+                sentence.language(),
+                translatedText,
+                targetLang,
+                System.currentTimeMillis(),
+                sessionId
+            );
+
+            pipeline.finals.offer(sentence.index(), new Final(finalTranslation, sentence.journalHandles()));
+
+            log.info("✅ Complete: {} ({}) → {} ({})",
+                     sentence.text(), sentence.language(), translatedText, targetLang);
+
+        } catch (Exception e) {
+            log.error("❌ Error translating sentence", e);
+            pipeline.finals.skip(sentence.index());
+        }
+    }
+
+    private String determineTargetLanguage(String sessionId, String detectedLang, String hintLang) {
+        LanguagePair pair = sessionStateStore.getLanguages(sessionId);
+
+        if (pair == null) {
+            // Nếu không có pair, dịch sang ngôn ngữ còn lại
+            return detectedLang.equalsIgnoreCase(hintLang)
+                ? getOppositeLanguage(hintLang)
+                : hintLang;
+        }
+
+        // Dịch sang ngôn ngữ kia trong cặp
+        return detectedLang.equalsIgnoreCase(pair.getLang1())
+            ? pair.getLang2()
+            : pair.getLang1();
+    }
+
+    private String getOppositeLanguage(String lang) {
+        return switch (lang.toLowerCase()) {
+            case "vi", "vie" -> "ja";
+            case "ja", "jpn" -> "vi";
+            case "en", "eng" -> "vi";
+            default -> "en";
+        };
+    }
+
+    private SessionPipeline pipeline(String sessionId) {
+        AudioJournalService.Unprocessed unprocessed = pendingReplays.remove(sessionId);
+        if (unprocessed != null) {
+            return replay(sessionId, unprocessed);
+        }
+        return sessions.computeIfAbsent(sessionId, id -> new SessionPipeline(id, 0));
+    }
+
+    /**
+     * The session's pipeline if it is still the given generation, null after a reset
+     */
+    private SessionPipeline current(String sessionId, long generation) {
+        SessionPipeline pipeline = sessions.get(sessionId);
+        return pipeline != null && pipeline.generation == generation ? pipeline : null;
+    }
+
+    private record Transcript(String text, String language, String hintLanguage,
+                              List<AudioJournal.Handle> journalHandles) {
+    }
+
+    private record Final(FinalTranslationDTO translation, List<AudioJournal.Handle> journalHandles) {
+    }
+
+    /**
+     * Decoded audio chunk, sequence null if unordered, journalHandle null if not journaled,
+     * generation of the SessionPipeline it was submitted to
+     */
+    private record Chunk(Long sequence, byte[] audio, String hintLanguage, AudioJournal.Handle journalHandle,
+                         long generation) {
+
+        void markProcessed() {
+            if (journalHandle != null) {
+                journalHandle.markProcessed();
+            }
+        }
+    }
+
+    private class SessionPipeline {
+        final String sessionId;
+        final long generation = generations.incrementAndGet();
+        final ReorderBuffer<Transcript> transcripts;
+        final SentenceAggregator sentences;
+        final ReorderBuffer<Final> finals;
+
+        // Consecutive chunks waiting to be merged (COALESCE_AUDIO)
+        private final List<Chunk> coalesceGroup = new ArrayList<>();
+        private ScheduledFuture<?> coalesceTimer;
+        // Tail of this session's translation chain
+        private CompletableFuture<Void> translations = CompletableFuture.completedFuture(null);
+
+        SessionPipeline(String sessionId, long firstSequence) {
+            this.sessionId = sessionId;
+            this.transcripts = new ReorderBuffer<>(sessionId + "/transcript", this::onTranscript,
+                    scheduler, gapTimeoutMs, firstSequence);
+            this.sentences = new SentenceAggregator(this::onSentence, scheduler,
+                    pauseTimeoutMs, maxSentenceChars);
+            this.finals = new ReorderBuffer<>(sessionId + "/final", this::onFinal,
+                    scheduler, gapTimeoutMs, 0);
+        }
+
+        void onTranscript(Transcript transcript) {
+            if (!degradationService.isActive(DegradationService.Step.SUSPEND_PARTIALS)) {
+                PartialCaptionDTO partialCaption = new PartialCaptionDTO(
+                    transcript.text(),
+                    transcript.language(),
+                    System.currentTimeMillis(),
+                    sessionId
+                );
+                captionPublisher.publishPartial(partialCaption);
+            }
+
+            sentences.append(transcript.text(), transcript.language(), transcript.hintLanguage(),
+                    transcript.journalHandles());
+        }
+
+        synchronized void onSentence(SentenceAggregator.Sentence sentence) {
+            // One at a time per session: each translation sees the context of the previous sentence
+            translations = translations.thenRunAsync(() -> translateSentence(this, sentence), executor);
+        }
+
+        void onFinal(Final finalTranslation) {
+            captionPublisher.publishFinal(finalTranslation.translation());
+            finalTranslation.journalHandles().forEach(AudioJournal.Handle::markProcessed);
+        }
+
+        synchronized void coalesce(Chunk chunk) {
+            if (!coalesceGroup.isEmpty()
+                    && chunk.sequence() != coalesceGroup.get(coalesceGroup.size() - 1).sequence() + 1) {
+                dispatchCoalesced();
+            }
+
+            coalesceGroup.add(chunk);
+            if (coalesceGroup.size() >= coalesceMaxChunks) {
+                dispatchCoalesced();
+            } else if (coalesceTimer == null) {
+                coalesceTimer = scheduler.schedule(this::dispatchCoalesced, coalesceWindowMs, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        synchronized void dispatchCoalesced() {
+            if (coalesceTimer != null) {
+                coalesceTimer.cancel(false);
+                coalesceTimer = null;
+            }
+            if (coalesceGroup.isEmpty()) {
+                return;
+            }
+            List<Chunk> chunks = List.copyOf(coalesceGroup);
+            coalesceGroup.clear();
+            CompletableFuture.runAsync(() -> processCoalesced(sessionId, chunks), executor);
+        }
+
+        /**
+         * Translate the buffered tail, then stop; finals close once the chain has published it
+         */
+        void close() {
+            synchronized (this) {
+                if (coalesceTimer != null) {
+                    coalesceTimer.cancel(false);
+                }
+                coalesceGroup.clear();
+                transcripts.close();
+            }
+            sentences.flush();
+            sentences.close();
+            synchronized (this) {
+                translations.whenComplete((ignored, e) -> finals.close());
+            }
+        }
+    }
+}
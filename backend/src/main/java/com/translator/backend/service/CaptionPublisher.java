@@ -0,0 +1,197 @@
+package com.translator.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.translator.backend.dto.FinalTranslationDTO;
+import com.translator.backend.dto.PartialCaptionDTO;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Service;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Publishes captions as JSON on /topic/partial, /topic/final and, for clients
+ * that subscribed to the ".cbor" variants, as compact CBOR binary frames.
+ *
+ * Each encoding is only produced while someone listens to it locally (both
+ * with the broker relay, where subscribers on other nodes are not visible).
+ * Payload size and serialization time are recorded per encoding.
+ */
+@Slf4j
+@Service
+public class CaptionPublisher {
+
+    public static final String PARTIAL_DESTINATION = "/topic/partial";
+    public static final String FINAL_DESTINATION = "/topic/final";
+    public static final String CBOR_SUFFIX = ".cbor";
+    /** STOMP header with the caption's session id, lets the transport coalesce per session */
+    public static final String SESSION_HEADER = "caption-session";
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final ObjectMapper jsonMapper;
+    private final CBORMapper cborMapper = new CBORMapper();
+    private final Timer jsonSerialize;
+    private final Timer cborSerialize;
+    private final DistributionSummary jsonBytes;
+    private final DistributionSummary cborBytes;
+
+    @Value("${websocket.cbor.enabled:true}")
+    private boolean cborEnabled;
+
+    @Value("${websocket.broker.relay.enabled:false}")
+    private boolean relayEnabled;
+
+    // "sessionId/subscriptionId" → destination of local caption subscriptions
+    private final ConcurrentHashMap<String, String> subscriptions = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, AtomicInteger> subscriberCounts = new ConcurrentHashMap<>();
+
+    public CaptionPublisher(SimpMessagingTemplate messagingTemplate, ObjectMapper objectMapper,
+                            MeterRegistry meterRegistry) {
+        this.messagingTemplate = messagingTemplate;
+        this.jsonMapper = objectMapper;
+        this.jsonSerialize = serializeTimer("json", meterRegistry);
+        this.cborSerialize = serializeTimer("cbor", meterRegistry);
+        this.jsonBytes = payloadSummary("json", meterRegistry);
+        this.cborBytes = payloadSummary("cbor", meterRegistry);
+    }
+
+    public void publishPartial(PartialCaptionDTO caption) {
+        publish(PARTIAL_DESTINATION, caption, caption.getSessionId());
+    }
+
+    public void publishFinal(FinalTranslationDTO translation) {
+        publish(FINAL_DESTINATION, translation, translation.getSessionId());
+    }
+
+    private void publish(String destination, Object payload, String sessionId) {
+        try {
+            if (hasSubscribers(destination)) {
+                send(destination, encode(jsonMapper, jsonSerialize, jsonBytes, payload),
+                     MimeTypeUtils.APPLICATION_JSON, sessionId);
+            }
+
+            String cborDestination = destination + CBOR_SUFFIX;
+            if (cborEnabled && hasSubscribers(cborDestination)) {
+                // octet-stream makes Spring send a binary WebSocket frame
+                send(cborDestination, encode(cborMapper, cborSerialize, cborBytes, payload),
+                     MimeTypeUtils.APPLICATION_OCTET_STREAM, sessionId);
+            }
+        } catch (Exception e) {
+            log.error("❌ Failed to publish to {}", destination, e);
+        }
+    }
+
+    /**
+     * Startup warm-up: serialize sample captions in both encodings (not sent, not measured)
+     */
+    void warmUp(int iterations) throws Exception {
+        PartialCaptionDTO partial = new PartialCaptionDTO("こんにちは", "ja", 0, "warmup");
+        FinalTranslationDTO translation = new FinalTranslationDTO(
+                "warmup", "こんにちは", "ja", "Xin chào", "vi", 0, "warmup");
+        for (int i = 0; i < iterations; i++) {
+            jsonMapper.writeValueAsBytes(partial);
+            jsonMapper.writeValueAsBytes(translation);
+            cborMapper.writeValueAsBytes(partial);
+            cborMapper.writeValueAsBytes(translation);
+        }
+    }
+
+    private boolean hasSubscribers(String destination) {
+        if (relayEnabled) {
+            return true;
+        }
+        AtomicInteger count = subscriberCounts.get(destination);
+        return count != null && count.get() > 0;
+    }
+
+    private static byte[] encode(ObjectMapper mapper, Timer serialize, DistributionSummary payloadBytes,
+                                 Object payload) throws Exception {
+        long start = System.nanoTime();
+        byte[] bytes = mapper.writeValueAsBytes(payload);
+        serialize.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        payloadBytes.record(bytes.length);
+        return bytes;
+    }
+
+    private static Timer serializeTimer(String encoding, MeterRegistry meterRegistry) {
+        return Timer.builder("captions.serialize")
+                .tag("encoding", encoding)
+                .register(meterRegistry);
+    }
+
+    private static DistributionSummary payloadSummary(String encoding, MeterRegistry meterRegistry) {
+        return DistributionSummary.builder("captions.payload.bytes")
+                .tag("encoding", encoding)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    private void send(String destination, byte[] body, MimeType contentType, String sessionId) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setContentType(contentType);
+        if (sessionId != null) {
+            accessor.setNativeHeader(SESSION_HEADER, sessionId);
+        }
+        accessor.setLeaveMutable(true);
+        messagingTemplate.send(destination, MessageBuilder.createMessage(body, accessor.getMessageHeaders()));
+    }
+
+    @EventListener
+    public void onSubscribe(SessionSubscribeEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        String destination = accessor.getDestination();
+        if (destination == null || !isCaptionDestination(destination)) {
+            return;
+        }
+        if (destination.endsWith(CBOR_SUFFIX) && !cborEnabled) {
+            log.warn("⚠️ Client subscribed to {} but websocket.cbor.enabled=false, it will get no captions",
+                     destination);
+        }
+        if (subscriptions.put(accessor.getSessionId() + "/" + accessor.getSubscriptionId(), destination) == null) {
+            subscriberCounts.computeIfAbsent(destination, d -> new AtomicInteger()).incrementAndGet();
+        }
+    }
+
+    @EventListener
+    public void onUnsubscribe(SessionUnsubscribeEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        removeSubscription(accessor.getSessionId() + "/" + accessor.getSubscriptionId());
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        String prefix = event.getSessionId() + "/";
+        subscriptions.keySet().stream()
+                .filter(key -> key.startsWith(prefix))
+                .toList()
+                .forEach(this::removeSubscription);
+    }
+
+    private void removeSubscription(String key) {
+        String destination = subscriptions.remove(key);
+        if (destination != null) {
+            subscriberCounts.get(destination).decrementAndGet();
+        }
+    }
+
+    private static boolean isCaptionDestination(String destination) {
+        return destination.startsWith(PARTIAL_DESTINATION) || destination.startsWith(FINAL_DESTINATION);
+    }
+}
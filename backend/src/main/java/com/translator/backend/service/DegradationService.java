@@ -0,0 +1,244 @@
+package com.translator.backend.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Trades caption quality for latency when the pipeline backs up.
+ *
+ * Every interval each pressure gets its own level: backlog from the pipeline
+ * queue depth, ASR and chat from their upstream's latency EWMA. A step relieves
+ * the backlog, a general step (upstream null) also relieves both upstreams, an
+ * upstream step only its own. Level N of a pressure turns on the first N
+ * configured steps that relieve it; a step is active if any pressure has it on.
+ * Escalation is immediate, one level per interval; recovery steps down one level
+ * only after that pressure has stayed low for recover-after-ms.
+ */
+@Slf4j
+@Service
+public class DegradationService {
+
+    public enum Upstream {
+        ASR,   // Whisper transcriptions
+        CHAT   // GPT translations
+    }
+
+    public enum Step {
+        COALESCE_AUDIO(Upstream.ASR),   // merge consecutive chunks into one Whisper request
+        SKIP_LANGUAGE_VERIFY(null),     // trust Whisper's language
+        FAST_MODEL(Upstream.CHAT),      // openai.gpt.fast-model instead of openai.gpt.model
+        SUSPEND_PARTIALS(null);         // only publish final translations
+
+        /** Upstream whose latency this step reduces, null if it relieves the pipeline in general */
+        final Upstream upstream;
+
+        Step(Upstream upstream) {
+            this.upstream = upstream;
+        }
+
+        boolean relieves(Pressure pressure) {
+            return pressure.upstream == null || upstream == null || upstream == pressure.upstream;
+        }
+    }
+
+    enum Pressure {
+        BACKLOG(null),
+        ASR(Upstream.ASR),
+        CHAT(Upstream.CHAT);
+
+        final Upstream upstream;
+
+        Pressure(Upstream upstream) {
+            this.upstream = upstream;
+        }
+    }
+
+    private static final double EWMA_ALPHA = 0.2;
+
+    @Value("${degradation.enabled:true}")
+    private boolean enabled;
+
+    @Value("${degradation.steps:COALESCE_AUDIO,SKIP_LANGUAGE_VERIFY,SUSPEND_PARTIALS}")
+    private List<Step> steps;
+
+    @Value("${degradation.queue-depth-per-level:8}")
+    private int queueDepthPerLevel;
+
+    @Value("${degradation.asr.latency-threshold-ms:2500}")
+    private long asrLatencyThresholdMs;
+
+    @Value("${degradation.chat.latency-threshold-ms:2500}")
+    private long chatLatencyThresholdMs;
+
+    @Value("${degradation.interval-ms:1000}")
+    private long intervalMs;
+
+    @Value("${degradation.recover-after-ms:10000}")
+    private long recoverAfterMs;
+
+    private final ThreadPoolExecutor executor;
+    private final ScheduledExecutorService scheduler;
+    private final MeterRegistry meterRegistry;
+    private final Clock clock;
+
+    private final EnumMap<Upstream, Latency> latencies = new EnumMap<>(Upstream.class);
+    private final EnumMap<Pressure, Level> levels = new EnumMap<>(Pressure.class);
+
+    @Autowired
+    public DegradationService(ThreadPoolExecutor audioPipelineExecutor,
+                              ScheduledExecutorService pipelineScheduler,
+                              MeterRegistry meterRegistry) {
+        this(audioPipelineExecutor, pipelineScheduler, meterRegistry, Clock.systemUTC());
+    }
+
+    DegradationService(ThreadPoolExecutor audioPipelineExecutor,
+                       ScheduledExecutorService pipelineScheduler,
+                       MeterRegistry meterRegistry,
+                       Clock clock) {
+        this.executor = audioPipelineExecutor;
+        this.scheduler = pipelineScheduler;
+        this.meterRegistry = meterRegistry;
+        this.clock = clock;
+        for (Upstream upstream : Upstream.values()) {
+            latencies.put(upstream, new Latency());
+        }
+        for (Pressure pressure : Pressure.values()) {
+            levels.put(pressure, new Level());
+        }
+    }
+
+    @PostConstruct
+    void start() {
+        levels.forEach((pressure, level) ->
+            Gauge.builder("pipeline.degradation.level", level, l -> l.value)
+                 .tag("pressure", pressure.name().toLowerCase())
+                 .register(meterRegistry));
+        latencies.forEach((upstream, latency) ->
+            Gauge.builder("pipeline.upstream.latency.ewma", latency, l -> l.ewmaMs)
+                 .tag("upstream", upstream.name().toLowerCase())
+                 .register(meterRegistry));
+
+        if (enabled && !steps.isEmpty()) {
+            scheduler.scheduleAtFixedRate(this::evaluate, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public boolean isActive(Step step) {
+        for (Pressure pressure : Pressure.values()) {
+            if (step.relieves(pressure) && rank(step, pressure) < levels.get(pressure).value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Called by the Whisper/GPT clients after every live upstream call
+     */
+    public void recordUpstreamLatency(Upstream upstream, long millis) {
+        synchronized (this) {
+            latencies.get(upstream).record(millis);
+        }
+    }
+
+    synchronized void evaluate() {
+        try {
+            latencies.values().forEach(Latency::decayIfIdle);
+
+            int queueDepth = executor.getQueue().size();
+            long now = clock.millis();
+            adjust(Pressure.BACKLOG, queueDepthPerLevel > 0 ? queueDepth / queueDepthPerLevel : 0, now);
+            adjust(Pressure.ASR, (int) (latencies.get(Upstream.ASR).ewmaMs / asrLatencyThresholdMs), now);
+            adjust(Pressure.CHAT, (int) (latencies.get(Upstream.CHAT).ewmaMs / chatLatencyThresholdMs), now);
+        } catch (Exception e) {
+            log.error("Degradation evaluation failed", e);
+        }
+    }
+
+    private void adjust(Pressure pressure, int wanted, long now) {
+        List<Step> relieving = steps.stream().filter(step -> step.relieves(pressure)).toList();
+        int target = Math.min(relieving.size(), wanted);
+
+        Level level = levels.get(pressure);
+        if (target > level.value) {
+            level.lowPressureSince = -1;
+            setLevel(pressure, level, level.value + 1, relieving);
+        } else if (target < level.value) {
+            if (level.lowPressureSince < 0) {
+                level.lowPressureSince = now;
+            } else if (now - level.lowPressureSince >= recoverAfterMs) {
+                level.lowPressureSince = now;
+                setLevel(pressure, level, level.value - 1, relieving);
+            }
+        } else {
+            level.lowPressureSince = -1;
+        }
+    }
+
+    private void setLevel(Pressure pressure, Level level, int newLevel, List<Step> relieving) {
+        log.warn("{} Degradation level {} for {} → {} (queue: {}, asr: {} ms, chat: {} ms) steps: {}",
+                 newLevel > level.value ? "📉" : "📈", level.value, pressure, newLevel,
+                 executor.getQueue().size(),
+                 Math.round(latencies.get(Upstream.ASR).ewmaMs),
+                 Math.round(latencies.get(Upstream.CHAT).ewmaMs),
+                 relieving.subList(0, newLevel));
+        level.value = newLevel;
+    }
+
+    /**
+     * Position of the step among the configured steps relieving the pressure
+     */
+    private int rank(Step step, Pressure pressure) {
+        int rank = 0;
+        for (Step configured : steps) {
+            if (configured == step) {
+                return rank;
+            }
+            if (configured.relieves(pressure)) {
+                rank++;
+            }
+        }
+        return Integer.MAX_VALUE;
+    }
+
+    /**
+     * Degradation level of one pressure; written under the service lock
+     */
+    private static final class Level {
+        volatile int value;
+        long lowPressureSince = -1;
+    }
+
+    /**
+     * EWMA of one upstream's call latency; guarded by the service lock
+     */
+    private static final class Latency {
+        volatile double ewmaMs;
+        int samplesSinceEvaluate;
+
+        void record(long millis) {
+            ewmaMs = ewmaMs == 0 ? millis : EWMA_ALPHA * millis + (1 - EWMA_ALPHA) * ewmaMs;
+            samplesSinceEvaluate++;
+        }
+
+        // No calls since last time: let a stale latency spike fade out
+        void decayIfIdle() {
+            if (samplesSinceEvaluate == 0) {
+                ewmaMs *= (1 - EWMA_ALPHA);
+            }
+            samplesSinceEvaluate = 0;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.translator.backend.service;
+
+import com.translator.backend.model.LanguagePair;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+@Service
+@ConditionalOnProperty(name = "session.store", havingValue = "memory", matchIfMissing = true)
+public class InMemorySessionStateStore implements SessionStateStore {
+
+    private final ConcurrentHashMap<String, LanguagePair> sessionLanguages = new ConcurrentHashMap<>();
+
+    private final ConcurrentHashMap<String, Set<String>> processedTexts = new ConcurrentHashMap<>();
+
+    @Override
+    public void initSession(String sessionId, LanguagePair languages) {
+        sessionLanguages.put(sessionId, languages);
+        processedTexts.put(sessionId, new ConcurrentSkipListSet<>());
+    }
+
+    @Override
+    public LanguagePair getLanguages(String sessionId) {
+        return sessionLanguages.get(sessionId);
+    }
+
+    @Override
+    public boolean markProcessed(String sessionId, String textKey) {
+        return processedTexts
+                .computeIfAbsent(sessionId, k -> new ConcurrentSkipListSet<>())
+                .add(textKey);
+    }
+
+    /**
+     * Single node: always the owner
+     */
+    @Override
+    public String claimOwner(String sessionId, String nodeId, Duration lease) {
+        return nodeId;
+    }
+
+    @Override
+    public String takeOverOwner(String sessionId, String unreachableOwner, String nodeId, Duration lease) {
+        return nodeId;
+    }
+
+    @Override
+    public void clearSession(String sessionId) {
+        processedTexts.remove(sessionId);
+        sessionLanguages.remove(sessionId);
+    }
+}
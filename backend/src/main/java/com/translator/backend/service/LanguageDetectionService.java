@@ -123,7 +123,7 @@ public class LanguageDetectionService {
     /**
      * Normalize language codes (3-letter -> 2-letter)
      */
-    private String normalizeLanguageCode(String code) {
+    public String normalizeLanguageCode(String code) {
         if (code == null || code.isEmpty()) {
             return "unknown";
         }
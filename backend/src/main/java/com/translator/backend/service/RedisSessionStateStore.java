@@ -0,0 +1,133 @@
+package com.translator.backend.service;
+
+import com.translator.backend.model.LanguagePair;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Session state in Redis so any node can serve any upload.
+ * Keys expire after session.store.ttl of inactivity so abandoned sessions
+ * don't pile up; every processed text extends both keys.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "session.store", havingValue = "redis")
+public class RedisSessionStateStore implements SessionStateStore {
+
+    private static final String KEY_PREFIX = "mt:session:";
+
+    /**
+     * SADD the text and refresh the TTL of the texts and langs keys in one round trip.
+     * KEYS[1] texts, KEYS[2] langs; ARGV[1] text key, ARGV[2] ttl seconds
+     */
+    static final RedisScript<Long> MARK_PROCESSED = new DefaultRedisScript<>(
+        "local added = redis.call('SADD', KEYS[1], ARGV[1])\n" +
+        "redis.call('EXPIRE', KEYS[1], ARGV[2])\n" +
+        "redis.call('EXPIRE', KEYS[2], ARGV[2])\n" +
+        "return added",
+        Long.class
+    );
+
+    /**
+     * Claim an unowned session or extend our own lease.
+     * KEYS[1] owner; ARGV[1] node id, ARGV[2] lease ms
+     */
+    static final RedisScript<String> CLAIM_OWNER = new DefaultRedisScript<>(
+        "local owner = redis.call('GET', KEYS[1])\n" +
+        "if not owner or owner == ARGV[1] then\n" +
+        "  redis.call('SET', KEYS[1], ARGV[1], 'PX', ARGV[2])\n" +
+        "  return ARGV[1]\n" +
+        "end\n" +
+        "return owner",
+        String.class
+    );
+
+    /**
+     * Compare-and-set of the owner. KEYS[1] owner; ARGV[1] node id, ARGV[2] expected owner, ARGV[3] lease ms
+     */
+    static final RedisScript<String> TAKE_OVER_OWNER = new DefaultRedisScript<>(
+        "local owner = redis.call('GET', KEYS[1])\n" +
+        "if not owner or owner == ARGV[2] then\n" +
+        "  redis.call('SET', KEYS[1], ARGV[1], 'PX', ARGV[3])\n" +
+        "  return ARGV[1]\n" +
+        "end\n" +
+        "return owner",
+        String.class
+    );
+
+    private final StringRedisTemplate redis;
+
+    @Value("${session.store.ttl:6h}")
+    private Duration ttl;
+
+    public RedisSessionStateStore(StringRedisTemplate redis) {
+        this.redis = redis;
+    }
+
+    @Override
+    public void initSession(String sessionId, LanguagePair languages) {
+        String langsKey = languagesKey(sessionId);
+        redis.delete(List.of(langsKey, textsKey(sessionId)));
+        redis.opsForHash().putAll(langsKey, Map.of(
+            "lang1", languages.getLang1(),
+            "lang2", languages.getLang2()
+        ));
+        redis.expire(langsKey, ttl);
+        log.debug("Stored session {} in Redis", sessionId);
+    }
+
+    @Override
+    public LanguagePair getLanguages(String sessionId) {
+        List<Object> values = redis.opsForHash().multiGet(languagesKey(sessionId), List.of("lang1", "lang2"));
+        if (values.get(0) == null || values.get(1) == null) {
+            return null;
+        }
+        return new LanguagePair((String) values.get(0), (String) values.get(1));
+    }
+
+    @Override
+    public boolean markProcessed(String sessionId, String textKey) {
+        Long added = redis.execute(MARK_PROCESSED,
+            List.of(textsKey(sessionId), languagesKey(sessionId)),
+            textKey, String.valueOf(ttl.toSeconds()));
+        return added != null && added > 0;
+    }
+
+    @Override
+    public String claimOwner(String sessionId, String nodeId, Duration lease) {
+        return redis.execute(CLAIM_OWNER, List.of(ownerKey(sessionId)),
+            nodeId, String.valueOf(lease.toMillis()));
+    }
+
+    @Override
+    public String takeOverOwner(String sessionId, String unreachableOwner, String nodeId, Duration lease) {
+        return redis.execute(TAKE_OVER_OWNER, List.of(ownerKey(sessionId)),
+            nodeId, unreachableOwner, String.valueOf(lease.toMillis()));
+    }
+
+    @Override
+    public void clearSession(String sessionId) {
+        redis.delete(List.of(languagesKey(sessionId), textsKey(sessionId), ownerKey(sessionId)));
+    }
+
+    private String languagesKey(String sessionId) {
+        return KEY_PREFIX + sessionId + ":langs";
+    }
+
+    private String textsKey(String sessionId) {
+        return KEY_PREFIX + sessionId + ":texts";
+    }
+
+    private String ownerKey(String sessionId) {
+        return KEY_PREFIX + sessionId + ":owner";
+    }
+}
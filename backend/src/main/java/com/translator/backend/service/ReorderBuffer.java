@@ -0,0 +1,156 @@
+package com.translator.backend.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Emits items strictly in sequence order although they complete out of order.
+ *
+ * A sequence that produced nothing must be skipped explicitly. If the next
+ * expected sequence is still missing after the gap timeout, it is given up
+ * and the buffer moves on to the lowest pending one. Items arriving after
+ * their slot was given up are emitted immediately rather than dropped.
+ *
+ * The sink is called outside the lock, by one thread at a time and in order:
+ * whoever finds items ready delivers them unless another thread already is.
+ * After close() everything offered is dropped.
+ */
+@Slf4j
+public class ReorderBuffer<T> {
+
+    private final String name;
+    private final Consumer<T> sink;
+    private final ScheduledExecutorService scheduler;
+    private final long gapTimeoutMs;
+
+    // Optional.empty() marks a skipped sequence
+    private final TreeMap<Long, Optional<T>> pending = new TreeMap<>();
+    // In order, waiting to be handed to the sink
+    private final ArrayDeque<T> ready = new ArrayDeque<>();
+    private long nextSequence;
+    private ScheduledFuture<?> gapTimer;
+    private boolean delivering;
+    private boolean closed;
+
+    public ReorderBuffer(String name, Consumer<T> sink, ScheduledExecutorService scheduler,
+                         long gapTimeoutMs, long firstSequence) {
+        this.name = name;
+        this.sink = sink;
+        this.scheduler = scheduler;
+        this.gapTimeoutMs = gapTimeoutMs;
+        this.nextSequence = firstSequence;
+    }
+
+    public void offer(long sequence, T item) {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            if (sequence < nextSequence) {
+                log.warn("⚠️ [{}] late item #{} (expected #{}), emitting out of order", name, sequence, nextSequence);
+                ready.add(item);
+            } else {
+                pending.put(sequence, Optional.of(item));
+                drain();
+            }
+        }
+        deliver();
+    }
+
+    public void skip(long sequence) {
+        synchronized (this) {
+            if (closed || sequence < nextSequence) {
+                return;
+            }
+            pending.putIfAbsent(sequence, Optional.empty());
+            drain();
+        }
+        deliver();
+    }
+
+    public synchronized int pendingCount() {
+        return pending.size();
+    }
+
+    public synchronized void close() {
+        closed = true;
+        cancelGapTimer();
+        pending.clear();
+        ready.clear();
+    }
+
+    // Caller holds the lock
+    private void drain() {
+        boolean progressed = false;
+        Map.Entry<Long, Optional<T>> head;
+        while ((head = pending.firstEntry()) != null && head.getKey() == nextSequence) {
+            pending.pollFirstEntry();
+            head.getValue().ifPresent(ready::add);
+            nextSequence++;
+            progressed = true;
+        }
+
+        if (pending.isEmpty() || progressed) {
+            cancelGapTimer();
+        }
+        if (!pending.isEmpty() && gapTimer == null) {
+            gapTimer = scheduler.schedule(this::onGapTimeout, gapTimeoutMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void onGapTimeout() {
+        synchronized (this) {
+            gapTimer = null;
+            if (closed || pending.isEmpty()) {
+                return;
+            }
+            long resumeAt = pending.firstKey();
+            log.warn("⚠️ [{}] gap timeout: giving up #{}..#{}", name, nextSequence, resumeAt - 1);
+            nextSequence = resumeAt;
+            drain();
+        }
+        deliver();
+    }
+
+    /**
+     * Hand ready items to the sink without holding the lock
+     */
+    private void deliver() {
+        synchronized (this) {
+            if (delivering) {
+                return;
+            }
+            delivering = true;
+        }
+        while (true) {
+            T item;
+            synchronized (this) {
+                item = ready.poll();
+                if (item == null) {
+                    delivering = false;
+                    return;
+                }
+            }
+            try {
+                sink.accept(item);
+            } catch (RuntimeException e) {
+                log.error("❌ [{}] sink failed", name, e);
+            }
+        }
+    }
+
+    private void cancelGapTimer() {
+        if (gapTimer != null) {
+            gapTimer.cancel(false);
+            gapTimer = null;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.translator.backend.service;
+
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.Call;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks the latest revision of each speech segment so translations of
+ * older revisions can be cancelled (in-flight GPT call) or discarded.
+ *
+ * A completed interim translation is kept until the segment's final arrives:
+ * if the final text is the same, its translation is reused instead of calling GPT again.
+ * Finished finals stay registered so late interims of the segment are rejected; a
+ * session's segments are dropped when it restarts or ends, or after STALE_AFTER_MS
+ * once more than MAX_TRACKED segments are held.
+ */
+@Slf4j
+@Service
+public class SegmentRevisionTracker {
+
+    private static final int MAX_TRACKED = 10_000;
+    private static final long STALE_AFTER_MS = 10 * 60 * 1000;
+
+    private final ConcurrentHashMap<String, Ticket> latest = new ConcurrentHashMap<>();
+
+    /**
+     * Register a new revision. Any older in-flight revision of the same segment is cancelled.
+     * If a newer revision is already registered, the returned ticket is cancelled immediately.
+     */
+    public Ticket register(String sessionId, String segmentId, long revision, boolean finalRevision, String text) {
+        if (latest.size() > MAX_TRACKED) {
+            long cutoff = System.currentTimeMillis() - STALE_AFTER_MS;
+            latest.values().removeIf(t -> t.registeredAt < cutoff);
+        }
+
+        String key = sessionId + "/" + segmentId;
+        Ticket ticket = new Ticket(key, revision, finalRevision, text);
+
+        Ticket current = latest.compute(key, (k, previous) -> {
+            if (previous != null && previous.revision > revision) {
+                return previous;
+            }
+            if (previous != null) {
+                previous.cancel();
+                if (finalRevision && previous.translation != null && sameText(previous.text, text)) {
+                    ticket.reusedTranslation = previous.translation;
+                }
+            }
+            return ticket;
+        });
+
+        if (current != ticket) {
+            log.debug("Stale revision {} for segment {}, latest is {}", revision, key, current.revision);
+            ticket.cancel();
+        }
+        return ticket;
+    }
+
+    /**
+     * Done with the ticket. A final stays registered to reject late interims, a
+     * successful interim for reuse by the final; a failed interim is forgotten.
+     *
+     * @param translation null if the translation failed or was superseded
+     */
+    public void complete(Ticket ticket, String translation) {
+        if (ticket.finalRevision) {
+            return;
+        }
+        if (translation != null && !ticket.cancelled) {
+            ticket.translation = translation;
+            return;
+        }
+        latest.remove(ticket.key, ticket);
+    }
+
+    /**
+     * Drop every segment of the session (session restarted or ended)
+     */
+    public void forgetSession(String sessionId) {
+        String prefix = sessionId + "/";
+        latest.keySet().removeIf(key -> key.startsWith(prefix));
+    }
+
+    int trackedSegments() {
+        return latest.size();
+    }
+
+    private static boolean sameText(String a, String b) {
+        return a != null && b != null && a.strip().equals(b.strip());
+    }
+
+    public static class Ticket {
+        private final String key;
+        private final long revision;
+        private final boolean finalRevision;
+        private final String text;
+        private final long registeredAt = System.currentTimeMillis();
+        private volatile boolean cancelled;
+        private volatile Call call;
+        // Interim result kept for the final; set once the interim completed
+        private volatile String translation;
+        private volatile String reusedTranslation;
+
+        Ticket(String key, long revision, boolean finalRevision, String text) {
+            this.key = key;
+            this.revision = revision;
+            this.finalRevision = finalRevision;
+            this.text = text;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        public boolean isFinalRevision() {
+            return finalRevision;
+        }
+
+        /**
+         * Translation of an earlier interim revision with the same text, null if none
+         */
+        public String getReusedTranslation() {
+            return reusedTranslation;
+        }
+
+        /**
+         * Attach the upstream call so it can be aborted if superseded
+         */
+        public void attach(Call upstreamCall) {
+            this.call = upstreamCall;
+            if (cancelled) {
+                upstreamCall.cancel();
+            }
+        }
+
+        void cancel() {
+            cancelled = true;
+            Call upstreamCall = call;
+            if (upstreamCall != null) {
+                upstreamCall.cancel();
+            }
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.translator.backend.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * Joins transcribed fragments of one session into sentences before translation.
+ *
+ * A sentence is emitted on end punctuation (incl. CJK 。！？), when the speaker's
+ * language changes, when it grows past maxChars, or after a pause with no new
+ * fragment. Fragments must be appended in order. The journal handles of a
+ * fragment's audio travel with the sentence it ends up in.
+ */
+public class SentenceAggregator {
+
+    private static final Pattern SENTENCE_END = Pattern.compile("[.!?。！？…]+[\"'」』）)]*\\s*$");
+
+    private final Consumer<Sentence> sink;
+    private final ScheduledExecutorService scheduler;
+    private final long pauseTimeoutMs;
+    private final int maxChars;
+
+    private final StringBuilder buffer = new StringBuilder();
+    private final List<AudioJournal.Handle> journalHandles = new ArrayList<>();
+    private String language;
+    private String hintLanguage;
+    private long nextIndex;
+    private ScheduledFuture<?> pauseTimer;
+
+    public SentenceAggregator(Consumer<Sentence> sink, ScheduledExecutorService scheduler,
+                              long pauseTimeoutMs, int maxChars) {
+        this.sink = sink;
+        this.scheduler = scheduler;
+        this.pauseTimeoutMs = pauseTimeoutMs;
+        this.maxChars = maxChars;
+    }
+
+    public void append(String text, String fragmentLanguage, String fragmentHint) {
+        append(text, fragmentLanguage, fragmentHint, List.of());
+    }
+
+    /**
+     * @param fragmentHandles journal records of the fragment's audio
+     */
+    public synchronized void append(String text, String fragmentLanguage, String fragmentHint,
+                                    List<AudioJournal.Handle> fragmentHandles) {
+        String fragment = text.strip();
+        if (fragment.isEmpty()) {
+            return;
+        }
+
+        if (buffer.length() > 0 && !fragmentLanguage.equals(language)) {
+            emit();
+        }
+
+        if (buffer.length() > 0 && !isCjk(fragmentLanguage)) {
+            buffer.append(' ');
+        }
+        buffer.append(fragment);
+        journalHandles.addAll(fragmentHandles);
+        language = fragmentLanguage;
+        hintLanguage = fragmentHint;
+
+        if (SENTENCE_END.matcher(fragment).find() || buffer.length() >= maxChars) {
+            emit();
+        } else {
+            restartPauseTimer();
+        }
+    }
+
+    /**
+     * Emit whatever is buffered (e.g. session ends)
+     */
+    public synchronized void flush() {
+        if (buffer.length() > 0) {
+            emit();
+        }
+    }
+
+    public synchronized void close() {
+        cancelPauseTimer();
+        buffer.setLength(0);
+        journalHandles.clear();
+    }
+
+    private void emit() {
+        cancelPauseTimer();
+        Sentence sentence = new Sentence(nextIndex++, buffer.toString(), language, hintLanguage,
+                List.copyOf(journalHandles));
+        buffer.setLength(0);
+        journalHandles.clear();
+        sink.accept(sentence);
+    }
+
+    private void restartPauseTimer() {
+        cancelPauseTimer();
+        pauseTimer = scheduler.schedule(this::flush, pauseTimeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    private void cancelPauseTimer() {
+        if (pauseTimer != null) {
+            pauseTimer.cancel(false);
+            pauseTimer = null;
+        }
+    }
+
+    private static boolean isCjk(String lang) {
+        return "ja".equals(lang) || "zh".equals(lang);
+    }
+
+    /**
+     * @param index          position of the sentence within the session, starts at 0
+     * @param journalHandles audio records to mark processed once the sentence is published
+     */
+    public record Sentence(long index, String text, String language, String hintLanguage,
+                           List<AudioJournal.Handle> journalHandles) {
+    }
+}
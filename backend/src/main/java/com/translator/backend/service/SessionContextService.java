@@ -0,0 +1,78 @@
+package com.translator.backend.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Rolling window of recent source/translation pairs per session,
+ * trimmed to a token budget so the prompt context stays cheap.
+ */
+@Slf4j
+@Service
+public class SessionContextService {
+
+    @Value("${translation.context.max-tokens:600}")
+    private int maxTokens;
+
+    @Value("${translation.context.max-entries:12}")
+    private int maxEntries;
+
+    private final ConcurrentHashMap<String, ContextWindow> windows = new ConcurrentHashMap<>();
+
+    public List<ContextEntry> snapshot(String sessionId) {
+        if (sessionId == null) {
+            return List.of();
+        }
+        ContextWindow window = windows.get(sessionId);
+        return window != null ? window.snapshot() : List.of();
+    }
+
+    public void record(String sessionId, String sourceText, String sourceLang,
+                       String translatedText, String targetLang) {
+        if (sessionId == null || maxTokens <= 0) {
+            return;
+        }
+        ContextEntry entry = new ContextEntry(sourceText, sourceLang, translatedText, targetLang);
+        windows.computeIfAbsent(sessionId, k -> new ContextWindow()).add(entry);
+    }
+
+    public void clear(String sessionId) {
+        if (sessionId != null && windows.remove(sessionId) != null) {
+            log.debug("Cleared translation context for session {}", sessionId);
+        }
+    }
+
+    public record ContextEntry(String sourceText, String sourceLang,
+                               String translatedText, String targetLang) {
+
+        int tokens() {
+            return TokenEstimator.estimate(sourceText) + TokenEstimator.estimate(translatedText) + 4;
+        }
+    }
+
+    /**
+     * Bounded ring buffer: oldest pairs drop out first.
+     */
+    private class ContextWindow {
+        private final ArrayDeque<ContextEntry> entries = new ArrayDeque<>();
+        private int totalTokens;
+
+        synchronized void add(ContextEntry entry) {
+            entries.addLast(entry);
+            totalTokens += entry.tokens();
+
+            while (!entries.isEmpty() && (totalTokens > maxTokens || entries.size() > maxEntries)) {
+                totalTokens -= entries.removeFirst().tokens();
+            }
+        }
+
+        synchronized List<ContextEntry> snapshot() {
+            return List.copyOf(entries);
+        }
+    }
+}
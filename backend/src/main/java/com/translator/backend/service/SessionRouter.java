@@ -0,0 +1,109 @@
+package com.translator.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends a session's requests to the one node holding its ordering state
+ * (reorder buffers, sentence aggregation, translation chain, audio journal).
+ *
+ * The load balancer stays non-sticky: whichever node receives a request looks
+ * up the session's owner lease in the SessionStateStore and forwards it there.
+ * The first node to see a session claims it; a node that stops answering loses
+ * its sessions to the node that noticed. Without cluster.node.url (single node)
+ * everything is handled locally.
+ */
+@Slf4j
+@Service
+public class SessionRouter {
+
+    /** Marks a request another node already routed, so it is never forwarded twice */
+    public static final String FORWARDED_HEADER = "X-Session-Forwarded";
+
+    private static final MediaType JSON = MediaType.parse("application/json");
+
+    /** Base URL other nodes reach this one at, e.g. http://10.0.0.5:8080 */
+    @Value("${cluster.node.url:}")
+    private String nodeUrl;
+
+    /** Extended with every routed request; a silent owner loses the session after this long */
+    @Value("${cluster.owner.lease:30s}")
+    private Duration ownerLease;
+
+    private final SessionStateStore sessionStateStore;
+    private final ObjectMapper objectMapper;
+    private final OkHttpClient httpClient;
+
+    public SessionRouter(SessionStateStore sessionStateStore, ObjectMapper objectMapper) {
+        this.sessionStateStore = sessionStateStore;
+        this.objectMapper = objectMapper;
+        this.httpClient = new OkHttpClient.Builder()
+                .connectTimeout(2, TimeUnit.SECONDS)
+                .readTimeout(10, TimeUnit.SECONDS)
+                .build();
+    }
+
+    /**
+     * Forward the request to the session's owner if that is another node
+     *
+     * @param path      same endpoint on the owner, e.g. /api/audio/upload
+     * @param forwarded the request already came from another node
+     * @return true if the owner handled it, false if it is to be handled here
+     */
+    public boolean forwardToOwner(String sessionId, String path, Object body, boolean forwarded) {
+        if (nodeUrl == null || nodeUrl.isBlank() || sessionId == null || forwarded) {
+            return false;
+        }
+
+        String owner = sessionStateStore.claimOwner(sessionId, nodeUrl, ownerLease);
+        if (owner == null || owner.equals(nodeUrl)) {
+            return false;
+        }
+
+        try {
+            post(owner, path, body);
+            log.debug("↪️ Session {} {} forwarded to {}", sessionId, path, owner);
+            return true;
+        } catch (IOException e) {
+            String newOwner = sessionStateStore.takeOverOwner(sessionId, owner, nodeUrl, ownerLease);
+            log.warn("⚠️ Owner {} of session {} unreachable ({}), now owned by {}",
+                     owner, sessionId, e.getMessage(), newOwner);
+            if (newOwner == null || newOwner.equals(nodeUrl)) {
+                return false;
+            }
+            // Someone else took it over first
+            try {
+                post(newOwner, path, body);
+                return true;
+            } catch (IOException retry) {
+                log.warn("⚠️ Owner {} of session {} unreachable too, handling it here", newOwner, sessionId);
+                return false;
+            }
+        }
+    }
+
+    private void post(String owner, String path, Object body) throws IOException {
+        Request request = new Request.Builder()
+                .url(owner + path)
+                .header(FORWARDED_HEADER, nodeUrl)
+                .post(RequestBody.create(objectMapper.writeValueAsBytes(body), JSON))
+                .build();
+        try (Response response = httpClient.newCall(request).execute()) {
+            // The owner is alive and handled it, even if that failed: no takeover
+            if (!response.isSuccessful()) {
+                log.warn("⚠️ Owner {} answered {} for {}", owner, response.code(), path);
+            }
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.translator.backend.service;
+
+import com.translator.backend.model.LanguagePair;
+
+import java.time.Duration;
+
+/**
+ * Per-session state shared by all backend nodes.
+ * In-memory for a single node, Redis when scaled out (session.store=redis).
+ */
+public interface SessionStateStore {
+
+    /**
+     * Start (or restart) a session: sets the language pair and resets duplicate detection
+     */
+    void initSession(String sessionId, LanguagePair languages);
+
+    /**
+     * @return language pair, or null if the session was never initialized
+     */
+    LanguagePair getLanguages(String sessionId);
+
+    /**
+     * Atomically remember a transcribed text for duplicate detection
+     *
+     * @return true if the text is new for this session, false if already processed
+     */
+    boolean markProcessed(String sessionId, String textKey);
+
+    /**
+     * Lease the session to the node that keeps its ordering state (see SessionRouter):
+     * claimed for nodeId if nobody holds it, extended if nodeId already does
+     *
+     * @return the node holding the lease
+     */
+    String claimOwner(String sessionId, String nodeId, Duration lease);
+
+    /**
+     * Move the lease from an owner that stopped answering to nodeId,
+     * unless it has already changed hands
+     *
+     * @return the node holding the lease afterwards
+     */
+    String takeOverOwner(String sessionId, String unreachableOwner, String nodeId, Duration lease);
+
+    /**
+     * Also releases the owner lease
+     */
+    void clearSession(String sessionId);
+}
@@ -0,0 +1,35 @@
+package com.translator.backend.service;
+
+/**
+ * Rough token estimate without a tokenizer dependency.
+ * CJK / Hangul chars count ~1 token each, other scripts ~4 chars per token.
+ */
+public final class TokenEstimator {
+
+    private TokenEstimator() {
+    }
+
+    public static int estimate(String text) {
+        if (text == null || text.isEmpty()) {
+            return 0;
+        }
+
+        int cjk = 0;
+        int other = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (isCjk(c)) {
+                cjk++;
+            } else {
+                other++;
+            }
+        }
+        return cjk + (other + 3) / 4;
+    }
+
+    private static boolean isCjk(char c) {
+        return (c >= '\u3040' && c <= '\u30FF') // Hiragana, Katakana
+            || (c >= '\u3400' && c <= '\u9FFF') // CJK ideographs
+            || (c >= '\uAC00' && c <= '\uD7A3'); // Hangul
+    }
+}
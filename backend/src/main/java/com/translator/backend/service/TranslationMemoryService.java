@@ -0,0 +1,395 @@
+package com.translator.backend.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Cross-session translation memory of approved source → target pairs.
+ *
+ * Exact matches come from a hash map, fuzzy matches from a character-trigram
+ * inverted index per language pair (works for CJK, no word segmentation needed)
+ * scored by Dice coefficient. Entries are persisted to an append-only TSV file.
+ */
+@Slf4j
+@Service
+public class TranslationMemoryService {
+
+    @Value("${translation.memory.enabled:true}")
+    private boolean enabled;
+
+    @Value("${translation.memory.file:data/translation-memory.tsv}")
+    private String memoryFile;
+
+    /**
+     * Posting lists longer than this are never scanned for candidates (a query whose
+     * rare trigrams are all this common finds nothing); scores still count them.
+     */
+    @Value("${translation.memory.max-postings:50000}")
+    private int maxPostings;
+
+    private static final ThreadLocal<IntCounter> COUNTERS = ThreadLocal.withInitial(IntCounter::new);
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final List<Entry> entries = new ArrayList<>();
+    // entry id → trigram count, next to each other for the length filter
+    private final IntList gramCounts = new IntList();
+    private final HashMap<String, Integer> exactIndex = new HashMap<>();
+    // language pair → trigram → entry ids
+    private final HashMap<String, HashMap<Long, IntList>> trigramIndex = new HashMap<>();
+
+    // Guards the TSV writer only, so disk I/O never blocks lookups
+    private final Object writerLock = new Object();
+    private BufferedWriter writer;
+
+    @PostConstruct
+    void load() {
+        if (!enabled) {
+            return;
+        }
+
+        Path path = Path.of(memoryFile);
+        long start = System.currentTimeMillis();
+
+        try {
+            if (Files.exists(path)) {
+                try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        String[] parts = line.split("\t", -1);
+                        if (parts.length != 4) {
+                            continue;
+                        }
+                        put(unescape(parts[2]), parts[0], unescape(parts[3]), parts[1]);
+                    }
+                }
+            } else if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+
+            writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+
+            log.info("📚 Translation memory: {} entries, {} trigrams loaded in {} ms",
+                     entries.size(), trigramIndex.values().stream().mapToInt(HashMap::size).sum(),
+                     System.currentTimeMillis() - start);
+        } catch (IOException e) {
+            log.error("Failed to load translation memory {}, continuing in-memory only", memoryFile, e);
+        }
+    }
+
+    @PreDestroy
+    void close() throws IOException {
+        synchronized (writerLock) {
+            if (writer != null) {
+                writer.close();
+            }
+        }
+    }
+
+    /**
+     * Record an approved translation (replaces an existing pair with the same source)
+     */
+    public void approve(String sourceText, String sourceLang, String translatedText, String targetLang) {
+        if (!enabled || isBlank(sourceText) || isBlank(translatedText)
+                || isBlank(sourceLang) || isBlank(targetLang)) {
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            put(sourceText, sourceLang, translatedText, targetLang);
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        // Appended after the index is updated, outside the index lock
+        synchronized (writerLock) {
+            if (writer == null) {
+                return;
+            }
+            try {
+                writer.write(sourceLang + "\t" + targetLang + "\t"
+                        + escape(sourceText) + "\t" + escape(translatedText));
+                writer.newLine();
+                writer.flush();
+            } catch (IOException e) {
+                log.error("Failed to persist translation memory entry", e);
+            }
+        }
+    }
+
+    /**
+     * Approved pair whose normalized source equals the text, null if none
+     */
+    public Entry findExact(String text, String sourceLang, String targetLang) {
+        if (!enabled || isBlank(text)) {
+            return null;
+        }
+
+        String key = exactKey(sourceLang, targetLang, normalize(text));
+        lock.readLock().lock();
+        try {
+            Integer id = exactIndex.get(key);
+            return id != null ? entries.get(id) : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Best matches for the text, highest score first, all with score >= minScore
+     */
+    public List<Match> lookup(String text, String sourceLang, String targetLang, double minScore, int limit) {
+        if (!enabled || isBlank(text) || limit <= 0) {
+            return List.of();
+        }
+
+        String normalized = normalize(text);
+
+        lock.readLock().lock();
+        try {
+            Integer exactId = exactIndex.get(exactKey(sourceLang, targetLang, normalized));
+            if (exactId != null) {
+                return List.of(new Match(entries.get(exactId), 1.0));
+            }
+
+            HashMap<Long, IntList> index = trigramIndex.get(pairKey(sourceLang, targetLang));
+            long[] queryGrams = trigrams(normalized);
+            if (index == null || queryGrams.length == 0) {
+                return List.of();
+            }
+
+            // Entries whose trigram count is too far off can never reach minScore
+            int minLen = (int) Math.ceil(queryGrams.length * minScore / (2 - minScore));
+            int maxLen = (int) Math.floor(queryGrams.length * (2 - minScore) / minScore);
+
+            // Query trigrams nobody has can't be shared; the rest rarest first
+            IntList[] postings = new IntList[queryGrams.length];
+            int present = 0;
+            for (long gram : queryGrams) {
+                IntList list = index.get(gram);
+                if (list != null) {
+                    postings[present++] = list;
+                }
+            }
+            Arrays.sort(postings, 0, present, Comparator.comparingInt(list -> list.size));
+
+            // A match shares at least minShared trigrams, so it has one of the
+            // (present - minShared + 1) rarest: only those lists are scanned.
+            int minShared = Math.max(1, (int) Math.ceil(minScore * (queryGrams.length + minLen) / 2));
+            int probe = present - minShared + 1;
+            if (probe <= 0) {
+                return List.of();
+            }
+
+            IntCounter counter = COUNTERS.get().reset(entries.size());
+            int scanned = 0;
+            while (scanned < probe && postings[scanned].size <= maxPostings) {
+                IntList list = postings[scanned++];
+                for (int i = 0; i < list.size; i++) {
+                    int id = list.values[i];
+                    int len = gramCounts.values[id];
+                    if (len >= minLen && len <= maxLen) {
+                        counter.increment(id);
+                    }
+                }
+            }
+
+            // Exact Dice: the remaining trigrams are checked per candidate in their
+            // (id-sorted) posting lists, so skipped lists still count on both sides
+            int checkFrom = scanned;
+            int checkTo = present;
+            List<Match> matches = new ArrayList<>();
+            counter.forEach((id, common) -> {
+                int total = queryGrams.length + gramCounts.values[id];
+                int needed = (int) Math.ceil(minScore * total / 2);
+                int shared = common;
+                for (int g = checkFrom; g < checkTo && shared + (checkTo - g) >= needed; g++) {
+                    if (Arrays.binarySearch(postings[g].values, 0, postings[g].size, id) >= 0) {
+                        shared++;
+                    }
+                }
+                double score = 2.0 * shared / total;
+                if (score >= minScore) {
+                    matches.add(new Match(entries.get(id), score));
+                }
+            });
+
+            matches.sort((a, b) -> Double.compare(b.score(), a.score()));
+            return matches.size() > limit ? List.copyOf(matches.subList(0, limit)) : matches;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public record Match(Entry entry, double score) {
+    }
+
+    public record Entry(String sourceText, String sourceLang, String targetText, String targetLang,
+                        int gramCount) {
+    }
+
+    // Caller holds the write lock (or is the single-threaded loader)
+    private void put(String sourceText, String sourceLang, String translatedText, String targetLang) {
+        String normalized = normalize(sourceText);
+        long[] grams = trigrams(normalized);
+        Entry entry = new Entry(sourceText, sourceLang, translatedText, targetLang, grams.length);
+        String key = exactKey(sourceLang, targetLang, normalized);
+
+        Integer existing = exactIndex.get(key);
+        if (existing != null) {
+            // Same source text → same trigrams, only the target changes
+            entries.set(existing, entry);
+            return;
+        }
+
+        int id = entries.size();
+        entries.add(entry);
+        gramCounts.add(grams.length);
+        exactIndex.put(key, id);
+        HashMap<Long, IntList> index = trigramIndex.computeIfAbsent(
+                pairKey(sourceLang, targetLang), k -> new HashMap<>());
+        for (long gram : grams) {
+            index.computeIfAbsent(gram, k -> new IntList()).add(id);
+        }
+    }
+
+    private static String pairKey(String sourceLang, String targetLang) {
+        return sourceLang + '\u0000' + targetLang;
+    }
+
+    private static String exactKey(String sourceLang, String targetLang, String normalized) {
+        return pairKey(sourceLang, targetLang) + '\u0000' + normalized;
+    }
+
+    /**
+     * Lowercase, collapse whitespace, drop trailing punctuation (incl. CJK 。！？)
+     */
+    static String normalize(String text) {
+        String s = text.toLowerCase().strip().replaceAll("\\s+", " ");
+        return s.replaceAll("[\\p{Punct}。、！？…]+$", "");
+    }
+
+    /**
+     * Distinct character trigrams, padded so 1-2 char texts still get grams
+     */
+    static long[] trigrams(String normalized) {
+        if (normalized.isEmpty()) {
+            return new long[0];
+        }
+        String padded = " " + normalized + " ";
+        long[] grams = new long[Math.max(padded.length() - 2, 0)];
+        for (int i = 0; i < grams.length; i++) {
+            grams[i] = ((long) padded.charAt(i) << 32)
+                     | ((long) padded.charAt(i + 1) << 16)
+                     | padded.charAt(i + 2);
+        }
+        return Arrays.stream(grams).distinct().toArray();
+    }
+
+    private static boolean isBlank(String s) {
+        return s == null || s.isBlank();
+    }
+
+    private static String escape(String s) {
+        return s.replace("\\", "\\\\").replace("\t", "\\t").replace("\n", "\\n");
+    }
+
+    private static String unescape(String s) {
+        StringBuilder sb = new StringBuilder(s.length());
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '\\' && i + 1 < s.length()) {
+                char next = s.charAt(++i);
+                sb.append(next == 't' ? '\t' : next == 'n' ? '\n' : next);
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Growable int array, avoids boxing in posting lists
+     */
+    private static final class IntList {
+        int[] values = new int[4];
+        int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+
+    /**
+     * id → count while scoring one query: dense array indexed by entry id plus the
+     * ids touched, reused per thread (4 bytes per entry per lookup thread)
+     */
+    private static final class IntCounter {
+        private int[] counts = new int[0];
+        private final IntList touched = new IntList();
+
+        IntCounter reset(int capacity) {
+            if (counts.length < capacity) {
+                counts = new int[Math.max(capacity, counts.length * 3 / 2)];
+            }
+            return this;
+        }
+
+        void increment(int key) {
+            if (counts[key]++ == 0) {
+                touched.add(key);
+            }
+        }
+
+        /**
+         * Visits every counted id once and clears the counter for the next query
+         */
+        void forEach(IntBiConsumer consumer) {
+            try {
+                for (int i = 0; i < touched.size; i++) {
+                    consumer.accept(touched.values[i], counts[touched.values[i]]);
+                }
+            } finally {
+                for (int i = 0; i < touched.size; i++) {
+                    counts[touched.values[i]] = 0;
+                }
+                touched.size = 0;
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface IntBiConsumer {
+        void accept(int key, int value);
+    }
+}
@@ -1,121 +1,481 @@
 package com.translator.backend.service;
 
-import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import okhttp3.*;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 @Slf4j
 @Service
 public class TranslationService {
 
+    /**
+     * Fixed rules. Together with the glossary this forms the prompt prefix, kept
+     * byte-identical across calls. Provider prompt caching only kicks in once the
+     * prefix reaches PROMPT_CACHE_MIN_TOKENS, i.e. with a sizeable glossary; the
+     * rules alone (~80 tokens) are far below it. translation.tokens{type=cached}
+     * shows whether it actually applies.
+     */
+    private static final String SYSTEM_RULES =
+        "You are a professional translator for live conversations.\n\n" +
+        "Rules:\n" +
+        "- Translate ONLY the text in the last message\n" +
+        "- Do NOT add explanations or extra content\n" +
+        "- Do NOT mention video, YouTube, or any context not in the text\n" +
+        "- Use the recent conversation only to keep pronouns and terms consistent\n" +
+        "- Keep the translation natural and conversational\n" +
+        "- Output ONLY the translation";
+
+    /** OpenAI caches prompt prefixes of at least this many tokens */
+    private static final int PROMPT_CACHE_MIN_TOKENS = 1024;
+
     @Value("${openai.api.key}")
     private String apiKey;
 
     @Value("${openai.gpt.model}")
     private String model;
 
+    @Value("${openai.gpt.fast-model:${openai.gpt.model}}")
+    private String fastModel;
+
+    @Value("${openai.api.base-url:https://api.openai.com}")
+    private String baseUrl;
+
+    @Value("${translation.glossary.file:}")
+    private String glossaryFile;
+
+    @Value("${translation.memory.example-threshold:0.6}")
+    private double memoryExampleThreshold;
+
+    @Value("${translation.memory.max-examples:3}")
+    private int memoryMaxExamples;
+
+    private final SessionContextService contextService;
+    private final TranslationMemoryService translationMemory;
+    private final DegradationService degradationService;
     private final OkHttpClient httpClient;
     private final ObjectMapper objectMapper;
 
-    public TranslationService() {
+    private final DistributionSummary promptTokens;
+    private final DistributionSummary completionTokens;
+    private final DistributionSummary cachedTokens;
+    private final Timer latency;
+    private final Counter memoryHits;
+
+    private String systemPrompt = SYSTEM_RULES;
+
+    public TranslationService(SessionContextService contextService,
+                              TranslationMemoryService translationMemory,
+                              DegradationService degradationService,
+                              ObjectMapper objectMapper,
+                              MeterRegistry meterRegistry) {
+        this.contextService = contextService;
+        this.translationMemory = translationMemory;
+        this.degradationService = degradationService;
         this.httpClient = new OkHttpClient.Builder()
                 .connectTimeout(30, TimeUnit.SECONDS)
                 .readTimeout(30, TimeUnit.SECONDS)
                 .build();
-        this.objectMapper = new ObjectMapper();
+        this.objectMapper = objectMapper;
+
+        this.promptTokens = DistributionSummary.builder("translation.tokens")
+                .tag("type", "prompt").register(meterRegistry);
+        this.completionTokens = DistributionSummary.builder("translation.tokens")
+                .tag("type", "completion").register(meterRegistry);
+        this.cachedTokens = DistributionSummary.builder("translation.tokens")
+                .tag("type", "cached").register(meterRegistry);
+        this.latency = Timer.builder("translation.latency")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.memoryHits = Counter.builder("translation.memory.hits").register(meterRegistry);
+        Gauge.builder("translation.memory.entries", translationMemory, TranslationMemoryService::size)
+                .register(meterRegistry);
     }
 
     /**
-     * ✅ Translate với prompt cải tiến để tránh hallucination
+     * Append glossary (if configured) to the fixed rules once at startup
      */
-    public String translate(String text, String sourceLang, String targetLang) {
+    @PostConstruct
+    void loadGlossary() {
+        if (glossaryFile != null && !glossaryFile.isBlank()) {
+            readGlossary();
+        }
+
+        int prefixTokens = TokenEstimator.estimate(systemPrompt);
+        if (prefixTokens < PROMPT_CACHE_MIN_TOKENS) {
+            log.info("Prompt prefix ~{} tokens, below the {}-token prompt cache minimum: no cached tokens expected",
+                     prefixTokens, PROMPT_CACHE_MIN_TOKENS);
+        } else {
+            log.info("Prompt prefix ~{} tokens, eligible for provider prompt caching", prefixTokens);
+        }
+    }
+
+    private void readGlossary() {
         try {
-            log.info("Translating: {} -> {}: {}", sourceLang, targetLang, text);
-
-            String sourceLanguageName = getLanguageName(sourceLang);
-            String targetLanguageName = getLanguageName(targetLang);
-
-            // ✅ IMPROVED PROMPT - Rõ ràng, không thêm thắt
-            String prompt = String.format(
-                "You are a professional translator for live conversations.\n\n" +
-                "Task: Translate the following %s text to %s.\n\n" +
-                "Rules:\n" +
-                "- Translate ONLY what is given\n" +
-                "- Do NOT add explanations or extra content\n" +
-                "- Do NOT mention video, YouTube, or any context not in the text\n" +
-                "- Keep the translation natural and conversational\n" +
-                "- Output ONLY the translation\n\n" +
-                "Text to translate:\n%s",
-                sourceLanguageName, targetLanguageName, text
-            );
-
-            // Build request JSON
-            ObjectNode requestJson = objectMapper.createObjectNode();
-            requestJson.put("model", model);
-            requestJson.put("temperature", 0.2); // Giảm từ 0.3 -> 0.2 để ít creative hơn
-            
-            ArrayNode messages = requestJson.putArray("messages");
-            
-            // System message để enforce behavior
-            ObjectNode systemMessage = messages.addObject();
-            systemMessage.put("role", "system");
-            systemMessage.put("content", 
-                "You are a precise translator. " +
-                "Translate only what is given. " +
-                "Never add context or explanations.");
-            
-            // User message
-            ObjectNode userMessage = messages.addObject();
-            userMessage.put("role", "user");
-            userMessage.put("content", prompt);
-
-            RequestBody requestBody = RequestBody.create(
-                requestJson.toString(),
-                MediaType.parse("application/json")
-            );
-
-            Request request = new Request.Builder()
-                    .url("https://api.openai.com/v1/chat/completions")
-                    .header("Authorization", "Bearer " + apiKey)
-                    .header("Content-Type", "application/json")
-                    .post(requestBody)
-                    .build();
-
-            // Execute request
-            try (Response response = httpClient.newCall(request).execute()) {
-                if (!response.isSuccessful()) {
-                    String errorBody = response.body() != null ? response.body().string() : "No error body";
-                    log.error("GPT API error: {} - {}", response.code(), errorBody);
-                    throw new RuntimeException("GPT API error: " + response.code());
+            List<String> lines = Files.readAllLines(Path.of(glossaryFile), StandardCharsets.UTF_8);
+            StringBuilder sb = new StringBuilder(SYSTEM_RULES).append("\n\nGlossary (always use these terms):");
+            int count = 0;
+            for (String line : lines) {
+                String entry = line.strip();
+                if (entry.isEmpty() || entry.startsWith("#")) {
+                    continue;
                 }
+                sb.append("\n- ").append(entry);
+                count++;
+            }
+            systemPrompt = sb.toString();
+            log.info("📚 Loaded {} glossary entries from {}", count, glossaryFile);
+        } catch (Exception e) {
+            log.error("Failed to load glossary {}, continuing without it", glossaryFile, e);
+        }
+    }
+
+    /**
+     * ✅ Translate với context gần nhất của session (nếu có)
+     */
+    public String translate(String sessionId, String text, String sourceLang, String targetLang) {
+        return translate(sessionId, text, sourceLang, targetLang, null);
+    }
+
+    /**
+     * Translate one revision of a speech segment. The GPT call is aborted if the
+     * ticket gets superseded; only final revisions go into the session context.
+     * A final with the same text as its translated interim reuses that translation.
+     */
+    public String translate(String sessionId, String text, String sourceLang, String targetLang,
+                            SegmentRevisionTracker.Ticket ticket) {
+        try {
+            String translation = ticket != null ? ticket.getReusedTranslation() : null;
+            if (translation != null) {
+                log.info("♻️ Reusing interim translation: {}", translation);
+            } else {
+                // Under load the degradation controller may switch to the faster model
+                String gptModel = degradationService.isActive(DegradationService.Step.FAST_MODEL) ? fastModel : model;
+                translation = lookupOrRequest(
+                    text, sourceLang, targetLang, contextService.snapshot(sessionId), gptModel, ticket, true
+                );
+            }
 
-                String responseBody = response.body().string();
-                JsonNode jsonNode = objectMapper.readTree(responseBody);
-                String translation = jsonNode
-                        .get("choices")
-                        .get(0)
-                        .get("message")
-                        .get("content")
-                        .asText()
-                        .trim();
-                
-                log.info("Translation result: {}", translation);
-                return translation;
+            if (ticket == null || ticket.isFinalRevision()) {
+                contextService.record(sessionId, text, sourceLang, translation, targetLang);
             }
 
+            log.info("Translation result: {}", translation);
+            return translation;
+
         } catch (Exception e) {
+            if (ticket != null && ticket.isCancelled()) {
+                log.debug("Translation superseded: {}", text);
+                return text;
+            }
             log.error("Error translating text", e);
             return text; // Return original text if translation fails
         }
     }
 
+    /**
+     * Translate with explicitly given surrounding conversation, e.g. offline batch
+     * reprocessing. Session context is neither read nor recorded, and latency is
+     * not fed into live degradation.
+     *
+     * @param gptModel null for openai.gpt.model
+     */
+    public String translateWithContext(String text, String sourceLang, String targetLang,
+                                       List<SessionContextService.ContextEntry> context, String gptModel) {
+        try {
+            return lookupOrRequest(text, sourceLang, targetLang, context,
+                                   gptModel != null ? gptModel : model, null, false);
+        } catch (Exception e) {
+            log.error("Error translating text", e);
+            return null;
+        }
+    }
+
+    private String lookupOrRequest(String text, String sourceLang, String targetLang,
+                                   List<SessionContextService.ContextEntry> context,
+                                   String gptModel, SegmentRevisionTracker.Ticket ticket,
+                                   boolean live) throws Exception {
+        log.info("Translating: {} -> {}: {}", sourceLang, targetLang, text);
+
+        TranslationMemoryService.Entry exact = translationMemory.findExact(text, sourceLang, targetLang);
+        if (exact != null) {
+            // ✅ Translation memory hit - skip GPT (chỉ khi trùng khớp sau normalize)
+            memoryHits.increment();
+            log.info("📚 Translation memory hit: {}", exact.targetText());
+            return exact.targetText();
+        }
+
+        // Fuzzy matches không đủ tin cậy để dùng thẳng, chỉ làm ví dụ trong prompt
+        List<TranslationMemoryService.Match> matches = translationMemory.lookup(
+            text, sourceLang, targetLang, memoryExampleThreshold, memoryMaxExamples
+        );
+
+        return requestTranslation(text, sourceLang, targetLang, matches, context, gptModel, ticket, live);
+    }
+
+    private String requestTranslation(String text, String sourceLang, String targetLang,
+                                      List<TranslationMemoryService.Match> examples,
+                                      List<SessionContextService.ContextEntry> context,
+                                      String gptModel,
+                                      SegmentRevisionTracker.Ticket ticket,
+                                      boolean live) throws Exception {
+        ObjectNode requestJson = buildRequestJson(text, sourceLang, targetLang, examples, context, gptModel);
+
+        RequestBody requestBody = RequestBody.create(
+            requestJson.toString(),
+            MediaType.parse("application/json")
+        );
+
+        Request request = new Request.Builder()
+                .url(baseUrl + "/v1/chat/completions")
+                .header("Authorization", "Bearer " + apiKey)
+                .header("Content-Type", "application/json")
+                .post(requestBody)
+                .build();
+
+        long start = System.nanoTime();
+
+        Call call = httpClient.newCall(request);
+        if (ticket != null) {
+            ticket.attach(call);
+        }
+
+        // Execute request
+        try (Response response = call.execute()) {
+            if (!response.isSuccessful()) {
+                String errorBody = response.body() != null ? response.body().string() : "No error body";
+                log.error("GPT API error: {} - {}", response.code(), errorBody);
+                throw new RuntimeException("GPT API error: " + response.code());
+            }
+
+            ChatResponse chatResponse = parseChatResponse(response.body().byteStream());
+
+            long elapsed = System.nanoTime() - start;
+            latency.record(elapsed, TimeUnit.NANOSECONDS);
+            if (live) {
+                degradationService.recordUpstreamLatency(
+                    DegradationService.Upstream.CHAT, TimeUnit.NANOSECONDS.toMillis(elapsed));
+            }
+            recordUsage(chatResponse);
+
+            if (chatResponse.content == null) {
+                throw new IOException("No message content in GPT response");
+            }
+            return chatResponse.content.trim();
+        }
+    }
+
+    /**
+     * Chat request body: the system message (rules + glossary) always comes first and
+     * never contains per-request data; examples, context and the text follow it.
+     */
+    ObjectNode buildRequestJson(String text, String sourceLang, String targetLang,
+                                List<TranslationMemoryService.Match> examples,
+                                List<SessionContextService.ContextEntry> context,
+                                String gptModel) {
+        // Build request JSON
+        ObjectNode requestJson = objectMapper.createObjectNode();
+        requestJson.put("model", gptModel);
+        requestJson.put("temperature", 0.2); // Giảm từ 0.3 -> 0.2 để ít creative hơn
+
+        ArrayNode messages = requestJson.putArray("messages");
+
+        // Stable prefix: rules + glossary, never contains per-request data
+        ObjectNode systemMessage = messages.addObject();
+        systemMessage.put("role", "system");
+        systemMessage.put("content", systemPrompt);
+
+        // Near matches and rolling context go after the prefix so it stays identical
+        if (!examples.isEmpty()) {
+            ObjectNode examplesMessage = messages.addObject();
+            examplesMessage.put("role", "user");
+            examplesMessage.put("content", buildExamplesBlock(examples));
+        }
+
+        if (!context.isEmpty()) {
+            ObjectNode contextMessage = messages.addObject();
+            contextMessage.put("role", "user");
+            contextMessage.put("content", buildContextBlock(context));
+        }
+
+        ObjectNode userMessage = messages.addObject();
+        userMessage.put("role", "user");
+        userMessage.put("content", String.format(
+            "Translate from %s to %s:\n%s",
+            getLanguageName(sourceLang), getLanguageName(targetLang), text
+        ));
+
+        return requestJson;
+    }
+
+    /**
+     * Read choices[0].message.content and the usage counters straight from the
+     * response stream; everything else is skipped without building a tree.
+     */
+    ChatResponse parseChatResponse(InputStream body) throws IOException {
+        ChatResponse result = new ChatResponse();
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Unexpected GPT response");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("choices".equals(field) && value == JsonToken.START_ARRAY) {
+                    parseChoices(parser, result);
+                } else if ("usage".equals(field) && value == JsonToken.START_OBJECT) {
+                    parseUsage(parser, result);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        return result;
+    }
+
+    private void parseChoices(JsonParser parser, ChatResponse result) throws IOException {
+        boolean first = true;
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            if (!first || parser.currentToken() != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                continue;
+            }
+            first = false;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("message".equals(field) && value == JsonToken.START_OBJECT) {
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        String messageField = parser.currentName();
+                        parser.nextToken();
+                        if ("content".equals(messageField)) {
+                            result.content = parser.getValueAsString();
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+    }
+
+    private void parseUsage(JsonParser parser, ChatResponse result) throws IOException {
+        result.hasUsage = true;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "prompt_tokens" -> result.promptTokens = parser.getValueAsInt();
+                case "completion_tokens" -> result.completionTokens = parser.getValueAsInt();
+                case "prompt_tokens_details" -> {
+                    if (value != JsonToken.START_OBJECT) {
+                        parser.skipChildren();
+                        break;
+                    }
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        String detail = parser.currentName();
+                        parser.nextToken();
+                        if ("cached_tokens".equals(detail)) {
+                            result.cachedTokens = parser.getValueAsInt();
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                }
+                default -> parser.skipChildren();
+            }
+        }
+    }
+
+    /**
+     * Startup warm-up: open a pooled connection to the API and run the prompt
+     * building, memory lookup and response parsing paths until they are
+     * JIT-compiled. Nothing is recorded in metrics or session context.
+     */
+    void warmUp(int iterations) throws IOException {
+        byte[] sample = ("{\"id\":\"chatcmpl-warmup\",\"object\":\"chat.completion\",\"choices\":[{\"index\":0,"
+                + "\"message\":{\"role\":\"assistant\",\"content\":\"Xin chào\"},\"finish_reason\":\"stop\"}],"
+                + "\"usage\":{\"prompt_tokens\":120,\"completion_tokens\":4,"
+                + "\"prompt_tokens_details\":{\"cached_tokens\":64}}}")
+                .getBytes(StandardCharsets.UTF_8);
+        List<SessionContextService.ContextEntry> context = List.of(
+                new SessionContextService.ContextEntry("こんにちは", "ja", "Xin chào", "vi"));
+
+        for (int i = 0; i < iterations; i++) {
+            parseChatResponse(new ByteArrayInputStream(sample));
+            buildContextBlock(context);
+            TokenEstimator.estimate("こんにちは、よろしくお願いします");
+        }
+        translationMemory.lookup("よろしくお願いします", "ja", "vi", memoryExampleThreshold, memoryMaxExamples);
+
+        Request request = new Request.Builder()
+                .url(baseUrl + "/v1/models")
+                .header("Authorization", "Bearer " + apiKey)
+                .build();
+        try (Response response = httpClient.newCall(request).execute()) {
+            log.info("🔥 GPT upstream connected ({})", response.code());
+        }
+    }
+
+    private String buildExamplesBlock(List<TranslationMemoryService.Match> examples) {
+        StringBuilder sb = new StringBuilder("Approved translations of similar phrases (follow their wording):");
+        for (TranslationMemoryService.Match match : examples) {
+            sb.append("\n").append(match.entry().sourceText())
+              .append(" → ").append(match.entry().targetText());
+        }
+        return sb.toString();
+    }
+
+    private String buildContextBlock(List<SessionContextService.ContextEntry> context) {
+        StringBuilder sb = new StringBuilder("Recent conversation (reference only, do not translate):");
+        for (SessionContextService.ContextEntry entry : context) {
+            sb.append("\n[").append(entry.sourceLang()).append("] ").append(entry.sourceText());
+            // Offline batch context may not be translated yet
+            if (entry.translatedText() != null) {
+                sb.append(" → [").append(entry.targetLang()).append("] ").append(entry.translatedText());
+            }
+        }
+        return sb.toString();
+    }
+
+    private void recordUsage(ChatResponse chatResponse) {
+        if (!chatResponse.hasUsage) {
+            return;
+        }
+        int prompt = chatResponse.promptTokens;
+        int completion = chatResponse.completionTokens;
+        int cached = chatResponse.cachedTokens;
+
+        promptTokens.record(prompt);
+        completionTokens.record(completion);
+        cachedTokens.record(cached);
+
+        log.debug("Token usage - prompt: {}, completion: {}, cached: {}", prompt, completion, cached);
+    }
+
     private String getLanguageName(String langCode) {
         return switch (langCode.toLowerCase()) {
             case "ja", "jpn" -> "Japanese";
@@ -126,4 +486,15 @@ public class TranslationService {
             default -> langCode;
         };
     }
-}
\ No newline at end of file
+
+    /**
+     * The few fields used from a chat completion response
+     */
+    static class ChatResponse {
+        String content;
+        boolean hasUsage;
+        int promptTokens;
+        int completionTokens;
+        int cachedTokens;
+    }
+}
@@ -0,0 +1,74 @@
+package com.translator.backend.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Explicit warm-up before a node takes traffic: opens pooled upstream
+ * connections and runs the JSON/CBOR hot paths until the JIT has compiled them.
+ *
+ * Spring Boot reports readiness (ACCEPTING_TRAFFIC, /actuator/health/readiness)
+ * only after all ApplicationRunners returned, so a load balancer probing
+ * readiness won't route to the node before this is done. A failed step is
+ * logged and skipped: an unreachable provider must not keep the node out.
+ */
+@Slf4j
+@Component
+public class WarmupRunner implements ApplicationRunner {
+
+    @Value("${warmup.enabled:false}")
+    private boolean enabled;
+
+    @Value("${warmup.iterations:10000}")
+    private int iterations;
+
+    private final WhisperService whisperService;
+    private final TranslationService translationService;
+    private final CaptionPublisher captionPublisher;
+    private final MeterRegistry meterRegistry;
+
+    public WarmupRunner(WhisperService whisperService,
+                        TranslationService translationService,
+                        CaptionPublisher captionPublisher,
+                        MeterRegistry meterRegistry) {
+        this.whisperService = whisperService;
+        this.translationService = translationService;
+        this.captionPublisher = captionPublisher;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        step("whisper", () -> whisperService.warmUp(iterations));
+        step("translation", () -> translationService.warmUp(iterations));
+        step("captions", () -> captionPublisher.warmUp(iterations));
+
+        long elapsed = System.nanoTime() - start;
+        meterRegistry.timer("application.warmup.time").record(elapsed, TimeUnit.NANOSECONDS);
+        log.info("🔥 Warm-up done in {} ms, ready for traffic", TimeUnit.NANOSECONDS.toMillis(elapsed));
+    }
+
+    private void step(String name, WarmupStep step) {
+        try {
+            step.run();
+        } catch (Exception e) {
+            log.warn("⚠️ Warm-up step '{}' failed: {}", name, e.getMessage());
+        }
+    }
+
+    @FunctionalInterface
+    private interface WarmupStep {
+        void run() throws Exception;
+    }
+}
@@ -1,6 +1,7 @@
 package com.translator.backend.service;
 
-import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
 import okhttp3.*;
@@ -8,7 +9,10 @@ import org.apache.commons.codec.binary.Base64;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.concurrent.TimeUnit;
 
 @Slf4j
@@ -21,10 +25,16 @@ public class WhisperService {
     @Value("${openai.whisper.model}")
     private String model;
 
+    @Value("${openai.api.base-url:https://api.openai.com}")
+    private String baseUrl;
+
     private final OkHttpClient httpClient;
     private final ObjectMapper objectMapper;
+    private final DegradationService degradationService;
 
-    public WhisperService() {
+    public WhisperService(DegradationService degradationService, ObjectMapper objectMapper) {
+        this.degradationService = degradationService;
+        this.objectMapper = objectMapper;
         ConnectionPool connectionPool = new ConnectionPool(5, 5, TimeUnit.MINUTES);
         
         this.httpClient = new OkHttpClient.Builder()
@@ -33,19 +43,39 @@ public class WhisperService {
                 .readTimeout(30, TimeUnit.SECONDS)
                 .writeTimeout(30, TimeUnit.SECONDS)
                 .build();
-        this.objectMapper = new ObjectMapper();
     }
 
     /**
      * Transcribe với auto-detection - KHÔNG chỉ định language trước
      */
     public TranscriptionResult transcribeWithDetection(String base64Audio) {
+        return transcribeWithDetection(Base64.decodeBase64(base64Audio));
+    }
+
+    /**
+     * Same as above for already decoded WAV bytes (e.g. several chunks merged)
+     */
+    public TranscriptionResult transcribeWithDetection(byte[] audioBytes) {
+        return transcribe(audioBytes, model, true);
+    }
+
+    /**
+     * Offline variant (e.g. batch reprocessing): another model, latency not fed
+     * into live degradation
+     */
+    public TranscriptionResult transcribeWithDetection(byte[] audioBytes, String whisperModel) {
+        return transcribe(audioBytes, whisperModel, false);
+    }
+
+    /**
+     * @return null on a transient failure (network, 5xx, 429: worth retrying),
+     *         {@link TranscriptionResult#rejected()} if retrying can't help (too short, other 4xx)
+     */
+    private TranscriptionResult transcribe(byte[] audioBytes, String whisperModel, boolean live) {
         try {
-            byte[] audioBytes = Base64.decodeBase64(base64Audio);
-            
             if (audioBytes.length < 1000) {
                 log.warn("Audio too short, skipping");
-                return null;
+                return TranscriptionResult.rejected();
             }
             
             log.info("Transcribing audio: {} bytes (auto-detect language)", audioBytes.length);
@@ -55,35 +85,35 @@ public class WhisperService {
                     .setType(MultipartBody.FORM)
                     .addFormDataPart("file", "audio.wav",
                             RequestBody.create(audioBytes, MediaType.parse("audio/wav")))
-                    .addFormDataPart("model", model)
+                    .addFormDataPart("model", whisperModel)
                     .addFormDataPart("response_format", "verbose_json") // Lấy language detected
                     .addFormDataPart("temperature", "0")
                     .build();
 
             Request request = new Request.Builder()
-                    .url("https://api.openai.com/v1/audio/transcriptions")
+                    .url(baseUrl + "/v1/audio/transcriptions")
                     .header("Authorization", "Bearer " + apiKey)
                     .post(requestBody)
                     .build();
 
+            long start = System.currentTimeMillis();
             try (Response response = httpClient.newCall(request).execute()) {
+                if (live) {
+                    degradationService.recordUpstreamLatency(
+                        DegradationService.Upstream.ASR, System.currentTimeMillis() - start);
+                }
+
                 if (response.isSuccessful()) {
-                    String responseBody = response.body().string();
-                    JsonNode jsonNode = objectMapper.readTree(responseBody);
+                    TranscriptionResult result = parseTranscription(response.body().byteStream());
                     
-                    String text = jsonNode.get("text").asText().trim();
-                    String detectedLang = jsonNode.has("language") 
-                        ? jsonNode.get("language").asText() 
-                        : "unknown";
+                    log.info("✅ Transcribed [{}]: {}", result.detectedLanguage, result.text);
                     
-                    log.info("✅ Transcribed [{}]: {}", detectedLang, text);
-                    
-                    return new TranscriptionResult(text, detectedLang);
+                    return result;
                     
                 } else {
                     String errorBody = response.body() != null ? response.body().string() : "No error body";
                     log.error("Whisper API error: {} - {}", response.code(), errorBody);
-                    return null;
+                    return isPermanent(response.code()) ? TranscriptionResult.rejected() : null;
                 }
             }
 
@@ -93,6 +123,13 @@ public class WhisperService {
         }
     }
 
+    /**
+     * 4xx means the request itself is bad, except timeouts and rate limiting
+     */
+    private static boolean isPermanent(int code) {
+        return code >= 400 && code < 500 && code != 408 && code != 429;
+    }
+
     /**
      * Transcribe với language hint (fallback nếu cần)
      */
@@ -118,16 +155,14 @@ public class WhisperService {
                     .build();
 
             Request request = new Request.Builder()
-                    .url("https://api.openai.com/v1/audio/transcriptions")
+                    .url(baseUrl + "/v1/audio/transcriptions")
                     .header("Authorization", "Bearer " + apiKey)
                     .post(requestBody)
                     .build();
 
             try (Response response = httpClient.newCall(request).execute()) {
                 if (response.isSuccessful()) {
-                    String responseBody = response.body().string();
-                    JsonNode jsonNode = objectMapper.readTree(responseBody);
-                    String text = jsonNode.get("text").asText().trim();
+                    String text = parseTranscription(response.body().byteStream()).text;
                     
                     log.info("✅ Transcription: {}", text);
                     return text;
@@ -145,7 +180,61 @@ public class WhisperService {
         }
     }
 
+    /**
+     * Pull "text" and "language" straight from the response stream; the
+     * verbose_json segment arrays are skipped token by token, never materialized.
+     * The body is still read to the end so the connection can be reused.
+     */
+    TranscriptionResult parseTranscription(InputStream body) throws IOException {
+        String text = null;
+        String language = "unknown";
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Unexpected Whisper response");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                switch (field) {
+                    case "text" -> text = parser.getValueAsString();
+                    case "language" -> language = parser.getValueAsString(language);
+                    default -> parser.skipChildren();
+                }
+            }
+        }
+
+        if (text == null) {
+            throw new IOException("No text in Whisper response");
+        }
+        return new TranscriptionResult(text.trim(), language);
+    }
+
+    /**
+     * Startup warm-up: open a pooled connection to the API and run the response
+     * parser until it is JIT-compiled. The request result itself is ignored.
+     */
+    void warmUp(int iterations) throws IOException {
+        byte[] sample = ("{\"task\":\"transcribe\",\"language\":\"japanese\",\"duration\":1.5,"
+                + "\"text\":\"こんにちは\",\"segments\":[{\"id\":0,\"start\":0.0,\"end\":1.5,"
+                + "\"text\":\"こんにちは\",\"tokens\":[1,2,3],\"avg_logprob\":-0.2}]}")
+                .getBytes(StandardCharsets.UTF_8);
+        for (int i = 0; i < iterations; i++) {
+            parseTranscription(new ByteArrayInputStream(sample));
+        }
+
+        Request request = new Request.Builder()
+                .url(baseUrl + "/v1/models")
+                .header("Authorization", "Bearer " + apiKey)
+                .build();
+        try (Response response = httpClient.newCall(request).execute()) {
+            log.info("🔥 Whisper upstream connected ({})", response.code());
+        }
+    }
+
     public static class TranscriptionResult {
+        private static final TranscriptionResult REJECTED = new TranscriptionResult(null, null);
+
         public final String text;
         public final String detectedLanguage;
 
@@ -153,5 +242,16 @@ public class WhisperService {
             this.text = text;
             this.detectedLanguage = detectedLanguage;
         }
+
+        /**
+         * The audio can never be transcribed (too short, rejected by the API)
+         */
+        public static TranscriptionResult rejected() {
+            return REJECTED;
+        }
+
+        public boolean isRejected() {
+            return this == REJECTED;
+        }
     }
 }
\ No newline at end of file
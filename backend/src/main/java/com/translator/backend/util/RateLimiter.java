@@ -0,0 +1,34 @@
+package com.translator.backend.util;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Spaces out calls evenly to stay under a provider's requests-per-minute limit.
+ * Callers block until their slot; 0 or less means unlimited.
+ */
+public final class RateLimiter {
+
+    private final long intervalNanos;
+    private long nextSlotNanos = System.nanoTime();
+
+    public RateLimiter(double requestsPerMinute) {
+        this.intervalNanos = requestsPerMinute > 0 ? (long) (TimeUnit.MINUTES.toNanos(1) / requestsPerMinute) : 0;
+    }
+
+    public void acquire() throws InterruptedException {
+        if (intervalNanos == 0) {
+            return;
+        }
+
+        long waitNanos;
+        synchronized (this) {
+            long now = System.nanoTime();
+            long slot = Math.max(now, nextSlotNanos);
+            nextSlotNanos = slot + intervalNanos;
+            waitNanos = slot - now;
+        }
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.translator.backend.util;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits 16-bit PCM into utterance-sized segments at pauses (energy based).
+ *
+ * Audio is scanned in 30 ms frames; a frame whose RMS is below silenceRms is
+ * silent. A segment is cut in the middle of a pause of at least minSilenceMs
+ * once it is minSegmentMs long, and forced at maxSegmentMs (at the quietest
+ * frame of its last second). Segments that are silent throughout are dropped.
+ * Only the per-frame energies are kept, so the PCM can be streamed in pieces.
+ */
+public final class UtteranceSegmenter {
+
+    private static final int FRAME_MS = 30;
+
+    private final int silenceRms;
+    private final long minSilenceMs;
+    private final long minSegmentMs;
+    private final long maxSegmentMs;
+
+    public UtteranceSegmenter(int silenceRms, long minSilenceMs, long minSegmentMs, long maxSegmentMs) {
+        this.silenceRms = silenceRms;
+        this.minSilenceMs = minSilenceMs;
+        this.minSegmentMs = minSegmentMs;
+        this.maxSegmentMs = maxSegmentMs;
+    }
+
+    /**
+     * @return segments as {start, end} byte offsets into pcm, frame aligned
+     */
+    public List<int[]> split(WavUtils.Format format, byte[] pcm) {
+        return split(format, List.of(ByteBuffer.wrap(pcm)));
+    }
+
+    /**
+     * @param pcm consecutive pieces of one recording, each read between position and limit
+     * @return segments as {start, end} byte offsets into the joined pieces, frame aligned
+     */
+    public List<int[]> split(WavUtils.Format format, List<ByteBuffer> pcm) {
+        if (format.bitsPerSample() != 16) {
+            throw new IllegalArgumentException("Only 16-bit PCM is supported");
+        }
+
+        long total = 0;
+        for (ByteBuffer piece : pcm) {
+            total += piece.remaining();
+        }
+        if (total > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("More than 2 GB of PCM");
+        }
+        int length = (int) total;
+
+        int frameBytes = format.bytesPerSecond() * FRAME_MS / 1000 / format.blockAlign() * format.blockAlign();
+        int frameCount = length / frameBytes;
+        double[] rms = rms(pcm, frameBytes, frameCount);
+
+        long minSilenceFrames = Math.max(1, minSilenceMs / FRAME_MS);
+        long minSegmentFrames = minSegmentMs / FRAME_MS;
+        long maxSegmentFrames = Math.max(1, maxSegmentMs / FRAME_MS);
+
+        List<int[]> segments = new ArrayList<>();
+        int start = 0;
+        int silenceRun = 0;
+        boolean voiced = false;
+
+        for (int i = 0; i < frameCount; i++) {
+            boolean silent = rms[i] < silenceRms;
+            silenceRun = silent ? silenceRun + 1 : 0;
+            voiced |= !silent;
+
+            int frames = i + 1 - start;
+            int cut = -1;
+            if (silenceRun >= minSilenceFrames && frames >= minSegmentFrames && voiced) {
+                cut = i + 1 - silenceRun / 2;
+            } else if (frames >= maxSegmentFrames) {
+                cut = quietestFrame(rms, Math.max(start + 1, i + 1 - 1000 / FRAME_MS), i + 1);
+            }
+
+            if (cut > start) {
+                addIfVoiced(segments, rms, start, cut, frameBytes);
+                start = cut;
+                silenceRun = 0;
+                voiced = false;
+                for (int j = start; j <= i; j++) {
+                    voiced |= rms[j] >= silenceRms;
+                }
+            }
+        }
+
+        addIfVoiced(segments, rms, start, frameCount, frameBytes);
+
+        // Keep the trailing partial frame
+        if (!segments.isEmpty()) {
+            int[] last = segments.get(segments.size() - 1);
+            if (last[1] == frameCount * frameBytes) {
+                last[1] = length - length % format.blockAlign();
+            }
+        }
+        return segments;
+    }
+
+    private void addIfVoiced(List<int[]> segments, double[] rms, int fromFrame, int toFrame, int frameBytes) {
+        for (int i = fromFrame; i < toFrame; i++) {
+            if (rms[i] >= silenceRms) {
+                segments.add(new int[]{fromFrame * frameBytes, toFrame * frameBytes});
+                return;
+            }
+        }
+    }
+
+    private static int quietestFrame(double[] rms, int from, int to) {
+        int best = to;
+        double bestRms = Double.MAX_VALUE;
+        for (int i = from; i < to; i++) {
+            if (rms[i] < bestRms) {
+                bestRms = rms[i];
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * RMS of every whole frame; frames are sample aligned, samples may straddle pieces
+     */
+    private static double[] rms(List<ByteBuffer> pcm, int frameBytes, int frameCount) {
+        double[] rms = new double[frameCount];
+        int samples = frameBytes / 2;
+        int frame = 0;
+        int inFrame = 0;
+        int low = -1;
+        long sum = 0;
+
+        for (ByteBuffer piece : pcm) {
+            for (int i = piece.position(); i < piece.limit() && frame < frameCount; i++) {
+                int b = piece.get(i) & 0xFF;
+                if (low < 0) {
+                    low = b;
+                } else {
+                    short sample = (short) (low | (b << 8));
+                    sum += (long) sample * sample;
+                    low = -1;
+                }
+                if (++inFrame == frameBytes) {
+                    rms[frame++] = Math.sqrt((double) sum / samples);
+                    inFrame = 0;
+                    sum = 0;
+                }
+            }
+        }
+        return rms;
+    }
+}
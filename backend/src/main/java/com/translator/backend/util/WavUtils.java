@@ -0,0 +1,144 @@
+package com.translator.backend.util;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Minimal RIFF/WAV helpers for PCM chunks recorded by the frontend (RecordRTC, 16kHz mono).
+ */
+public final class WavUtils {
+
+    private static final int RIFF_HEADER_SIZE = 12;
+    private static final int CHUNK_HEADER_SIZE = 8;
+
+    private WavUtils() {
+    }
+
+    /**
+     * Join WAV files with the same format into one: keeps the first file's
+     * "fmt " chunk and concatenates all "data" payloads.
+     */
+    public static byte[] concat(List<byte[]> wavFiles) {
+        if (wavFiles.size() == 1) {
+            return wavFiles.get(0);
+        }
+
+        byte[] first = wavFiles.get(0);
+        int[] firstData = findDataChunk(first);
+        ByteArrayOutputStream pcm = new ByteArrayOutputStream();
+        for (byte[] wav : wavFiles) {
+            int[] data = findDataChunk(wav);
+            pcm.write(wav, data[0], data[1]);
+        }
+
+        int headerSize = firstData[0];
+        int pcmSize = pcm.size();
+        ByteBuffer out = ByteBuffer.allocate(headerSize + pcmSize).order(ByteOrder.LITTLE_ENDIAN);
+        out.put(first, 0, headerSize);
+        out.putInt(4, headerSize - CHUNK_HEADER_SIZE + pcmSize);  // RIFF size
+        out.putInt(headerSize - 4, pcmSize);                       // data chunk size
+        out.put(pcm.toByteArray());
+        return out.array();
+    }
+
+    /**
+     * Wrap raw PCM into a canonical 44-byte-header WAV file
+     */
+    public static byte[] toWav(Format format, byte[] pcm, int offset, int length) {
+        ByteBuffer out = ByteBuffer.allocate(44 + length).order(ByteOrder.LITTLE_ENDIAN);
+        out.put("RIFF".getBytes(StandardCharsets.US_ASCII)).putInt(36 + length)
+           .put("WAVE".getBytes(StandardCharsets.US_ASCII))
+           .put("fmt ".getBytes(StandardCharsets.US_ASCII)).putInt(16)
+           .putShort((short) 1)                                    // PCM
+           .putShort((short) format.channels())
+           .putInt(format.sampleRate())
+           .putInt(format.bytesPerSecond())
+           .putShort((short) format.blockAlign())
+           .putShort((short) format.bitsPerSample())
+           .put("data".getBytes(StandardCharsets.US_ASCII)).putInt(length)
+           .put(pcm, offset, length);
+        return out.array();
+    }
+
+    /**
+     * Read the "fmt " chunk
+     */
+    public static Format readFormat(byte[] wav) {
+        return readFormat(ByteBuffer.wrap(wav));
+    }
+
+    /**
+     * Read the "fmt " chunk of a WAV file between the buffer's position and limit
+     */
+    public static Format readFormat(ByteBuffer wav) {
+        ByteBuffer buf = wav.slice().order(ByteOrder.LITTLE_ENDIAN);
+        int pos = RIFF_HEADER_SIZE;
+        while (pos + CHUNK_HEADER_SIZE + 16 <= buf.limit()) {
+            int size = buf.getInt(pos + 4);
+            if (isChunk(buf, pos, "fmt ")) {
+                int body = pos + CHUNK_HEADER_SIZE;
+                return new Format(buf.getShort(body + 2), buf.getInt(body + 4), buf.getShort(body + 14));
+            }
+            pos += CHUNK_HEADER_SIZE + size + (size & 1);
+        }
+        throw new IllegalArgumentException("No fmt chunk in WAV");
+    }
+
+    /**
+     * @return {offset of PCM payload, payload length}
+     */
+    public static int[] findDataChunk(byte[] wav) {
+        return findDataChunk(ByteBuffer.wrap(wav));
+    }
+
+    /**
+     * @return {offset of PCM payload relative to the buffer's position, payload length}
+     */
+    public static int[] findDataChunk(ByteBuffer wav) {
+        ByteBuffer buf = wav.slice().order(ByteOrder.LITTLE_ENDIAN);
+        int length = buf.limit();
+        if (length < RIFF_HEADER_SIZE || !isChunk(buf, 0, "RIFF") || !isChunk(buf, 8, "WAVE")) {
+            throw new IllegalArgumentException("Not a RIFF/WAVE file");
+        }
+
+        int pos = RIFF_HEADER_SIZE;
+        while (pos + CHUNK_HEADER_SIZE <= length) {
+            int size = buf.getInt(pos + 4);
+            if (isChunk(buf, pos, "data")) {
+                int start = pos + CHUNK_HEADER_SIZE;
+                // Streaming recorders sometimes leave the size unset
+                int payload = size <= 0 || start + size > length ? length - start : size;
+                return new int[]{start, payload};
+            }
+            pos += CHUNK_HEADER_SIZE + size + (size & 1);
+        }
+        throw new IllegalArgumentException("No data chunk in WAV");
+    }
+
+    public record Format(int channels, int sampleRate, int bitsPerSample) {
+
+        public int blockAlign() {
+            return channels * bitsPerSample / 8;
+        }
+
+        public int bytesPerSecond() {
+            return sampleRate * blockAlign();
+        }
+
+        public long durationMs(long pcmBytes) {
+            return pcmBytes * 1000 / bytesPerSecond();
+        }
+    }
+
+    private static boolean isChunk(ByteBuffer wav, int pos, String id) {
+        for (int i = 0; i < 4; i++) {
+            if (wav.get(pos + i) != id.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,183 @@
+package com.translator.backend.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PartialCaptionCoalescingSessionTest {
+
+    // Not a caption: no caption-session header
+    private static final TextMessage BLOCKER = new TextMessage("MESSAGE\ndestination:/topic/other\n\n{}\0");
+
+    private final List<WebSocketMessage<?>> delivered = new CopyOnWriteArrayList<>();
+    private final CountDownLatch blocked = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final Counter coalesced = Counter.builder("coalesced").register(new SimpleMeterRegistry());
+    private PartialCaptionCoalescingSession session;
+    private Thread slowSend;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        WebSocketSession delegate = mock(WebSocketSession.class);
+        when(delegate.getId()).thenReturn("ws-1");
+        when(delegate.isOpen()).thenReturn(true);
+        doAnswer(invocation -> {
+            WebSocketMessage<?> message = invocation.getArgument(0);
+            delivered.add(message);
+            if (message == BLOCKER) {
+                blocked.countDown();
+                release.await(5, TimeUnit.SECONDS);
+            }
+            return null;
+        }).when(delegate).sendMessage(any());
+
+        session = new PartialCaptionCoalescingSession(delegate, 10_000, 1024 * 1024, coalesced);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        release.countDown();
+        if (slowSend != null) {
+            slowSend.join(5000);
+        }
+    }
+
+    @Test
+    void idlePartialIsSentRightAway() throws Exception {
+        TextMessage partial = caption("/topic/partial", "s1", "a");
+
+        session.sendMessage(partial);
+
+        assertThat(delivered).containsExactly(partial);
+        assertThat(coalesced.count()).isZero();
+    }
+
+    @Test
+    void keepsOnlyLatestPartialWhileBusy() throws Exception {
+        startSlowSend();
+        TextMessage p1 = caption("/topic/partial", "s1", "a");
+        TextMessage p2 = caption("/topic/partial", "s1", "ab");
+        TextMessage p3 = caption("/topic/partial", "s1", "abc");
+
+        session.sendMessage(p1);
+        session.sendMessage(p2);
+        session.sendMessage(p3);
+        assertThat(delivered).containsExactly(BLOCKER);
+
+        finishSlowSend();
+
+        assertThat(delivered).containsExactly(BLOCKER, p3);
+        assertThat(coalesced.count()).isEqualTo(2);
+    }
+
+    @Test
+    void pendingPartialGoesOutBeforeFinalOfSameSession() throws Exception {
+        startSlowSend();
+        TextMessage partial = caption("/topic/partial", "s1", "abc");
+        TextMessage finalCaption = caption("/topic/final", "s1", "abc.");
+
+        session.sendMessage(partial);
+        session.sendMessage(finalCaption);
+
+        finishSlowSend();
+
+        assertThat(delivered).containsExactly(BLOCKER, partial, finalCaption);
+        assertThat(coalesced.count()).isZero();
+    }
+
+    @Test
+    void partialsAreKeyedByCaptionSessionAndEncoding() throws Exception {
+        startSlowSend();
+        TextMessage s1 = caption("/topic/partial", "s1", "a");
+        TextMessage s2 = caption("/topic/partial", "s2", "x");
+        BinaryMessage s1Cbor = binaryCaption("/topic/partial.cbor", "s1", "a");
+        TextMessage s1Newer = caption("/topic/partial", "s1", "ab");
+
+        session.sendMessage(s1);
+        session.sendMessage(s2);
+        session.sendMessage(s1Cbor);
+        session.sendMessage(s1Newer);
+
+        finishSlowSend();
+
+        assertThat(delivered.get(0)).isSameAs(BLOCKER);
+        assertThat(delivered.subList(1, delivered.size())).containsExactlyInAnyOrder(s2, s1Cbor, s1Newer);
+        assertThat(coalesced.count()).isEqualTo(1);
+    }
+
+    @Test
+    void otherFramesPassThroughInOrder() throws Exception {
+        startSlowSend();
+        TextMessage connected = new TextMessage("CONNECTED\nversion:1.2\n\n\0");
+        TextMessage heartbeat = new TextMessage("\n");
+        TextMessage untaggedPartial = new TextMessage("MESSAGE\ndestination:/topic/partial\n\n{}\0");
+        TextMessage untaggedPartial2 = new TextMessage("MESSAGE\ndestination:/topic/partial\n\n{\"b\":1}\0");
+
+        session.sendMessage(connected);
+        session.sendMessage(heartbeat);
+        session.sendMessage(untaggedPartial);
+        session.sendMessage(untaggedPartial2);
+
+        finishSlowSend();
+
+        assertThat(delivered).containsExactly(BLOCKER, connected, heartbeat, untaggedPartial, untaggedPartial2);
+        assertThat(coalesced.count()).isZero();
+    }
+
+    /**
+     * Another thread's send stays stuck in the socket until finishSlowSend
+     */
+    private void startSlowSend() throws InterruptedException {
+        slowSend = new Thread(() -> {
+            try {
+                session.sendMessage(BLOCKER);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        slowSend.start();
+        assertThat(blocked.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    private void finishSlowSend() throws InterruptedException {
+        release.countDown();
+        slowSend.join(5000);
+        assertThat(slowSend.isAlive()).isFalse();
+    }
+
+    private static TextMessage caption(String destination, String captionSession, String text) {
+        return new TextMessage(head(destination, captionSession) + "{\"text\":\"" + text + "\"}\0");
+    }
+
+    private static BinaryMessage binaryCaption(String destination, String captionSession, String text) {
+        byte[] head = head(destination, captionSession).getBytes(StandardCharsets.UTF_8);
+        byte[] body = text.getBytes(StandardCharsets.UTF_8);
+        byte[] frame = new byte[head.length + body.length + 1];
+        System.arraycopy(head, 0, frame, 0, head.length);
+        System.arraycopy(body, 0, frame, head.length, body.length);
+        return new BinaryMessage(frame);
+    }
+
+    private static String head(String destination, String captionSession) {
+        return "MESSAGE\ndestination:" + destination + "\ncaption-session:" + captionSession
+                + "\nsubscription:sub-0\nmessage-id:1\n\n";
+    }
+}
@@ -0,0 +1,106 @@
+package com.translator.backend.controller;
+
+import com.translator.backend.service.SegmentRevisionTracker;
+import com.translator.backend.service.TranslationService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Debounce, supersede and reuse of segment revisions on /api/translate
+ */
+class TranslationControllerTest {
+
+    private final TranslationService translationService = mock(TranslationService.class);
+    private final SegmentRevisionTracker tracker = new SegmentRevisionTracker();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    private final ThreadPoolExecutor executor = new ThreadPoolExecutor(
+            1, 1, 0, TimeUnit.SECONDS, new ArrayBlockingQueue<>(4));
+    private final TranslationController controller =
+            new TranslationController(translationService, null, tracker, executor, scheduler);
+
+    TranslationControllerTest() {
+        ReflectionTestUtils.setField(controller, "debounceMs", 100L);
+        when(translationService.translate(anyString(), anyString(), anyString(), anyString(), any()))
+                .thenAnswer(invocation -> "vi:" + invocation.getArgument(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdownNow();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void finalWithinDebounceSupersedesInterimWithoutTranslatingIt() throws Exception {
+        CompletableFuture<Map<String, Object>> interim = controller.translate(request("おはよう", 1, false));
+        Map<String, Object> fin = controller.translate(request("おはようございます", 2, true)).get(1, TimeUnit.SECONDS);
+
+        assertThat(fin).containsEntry("translation", "vi:おはようございます");
+        assertThat(interim.get(1, TimeUnit.SECONDS)).containsEntry("superseded", true);
+        verify(translationService, never()).translate(any(), eq("おはよう"), any(), any(), any());
+    }
+
+    @Test
+    void newerInterimSupersedesOlderOne() throws Exception {
+        CompletableFuture<Map<String, Object>> first = controller.translate(request("おは", 1, false));
+        CompletableFuture<Map<String, Object>> second = controller.translate(request("おはよう", 2, false));
+
+        assertThat(first.get(1, TimeUnit.SECONDS)).containsEntry("superseded", true);
+        assertThat(second.get(1, TimeUnit.SECONDS)).containsEntry("translation", "vi:おはよう");
+        verify(translationService, times(1)).translate(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void staleRevisionIsAnsweredAsSuperseded() throws Exception {
+        controller.translate(request("おはようございます", 5, true)).get(1, TimeUnit.SECONDS);
+
+        Map<String, Object> late = controller.translate(request("おはよう", 3, false)).get(1, TimeUnit.SECONDS);
+
+        assertThat(late).containsEntry("superseded", true).containsEntry("revision", 3L);
+        verify(translationService, times(1)).translate(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void finalWithSameTextGetsTheInterimTranslationHandedOver() throws Exception {
+        controller.translate(request("おはようございます", 1, false)).get(1, TimeUnit.SECONDS);
+
+        controller.translate(request("おはようございます", 2, true)).get(1, TimeUnit.SECONDS);
+
+        verify(translationService).translate(any(), eq("おはようございます"), any(), any(),
+                argThat(ticket -> ticket.isFinalRevision()
+                        && "vi:おはようございます".equals(ticket.getReusedTranslation())));
+    }
+
+    @Test
+    void requestWithoutSegmentIsTranslatedDirectly() throws Exception {
+        TranslationController.TranslationRequest request = request("こんにちは", 0, false);
+        request.setSegmentId(null);
+
+        assertThat(controller.translate(request).get(1, TimeUnit.SECONDS))
+                .containsEntry("translation", "vi:こんにちは");
+    }
+
+    private static TranslationController.TranslationRequest request(String text, long revision, boolean finalResult) {
+        return new TranslationController.TranslationRequest(text, "ja", "vi", "s1", "seg-1", revision, finalResult);
+    }
+}
@@ -0,0 +1,175 @@
+package com.translator.backend.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AudioJournalTest {
+
+    // crc, audio length, sequence, timestamp, language length
+    private static final int RECORD_HEADER_SIZE = 25;
+    private static final int SLOT_SIZE = 16;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void recordsRoundTrip() throws IOException {
+        AudioJournal journal = new AudioJournal(dir, 64 * 1024, 16, 4);
+        journal.append(0, 1_000, "ja", audio(100, 1));
+        journal.append(AudioJournal.NO_SEQUENCE, 2_000, null, audio(50, 2));
+        journal.close();
+
+        List<AudioJournal.JournalRecord> records = scan();
+
+        assertThat(records).hasSize(2);
+        assertThat(records.get(0).sequence()).isZero();
+        assertThat(records.get(0).timestamp()).isEqualTo(1_000);
+        assertThat(records.get(0).language()).isEqualTo("ja");
+        assertThat(records.get(0).audioBytes()).isEqualTo(audio(100, 1));
+        assertThat(records.get(0).processed()).isFalse();
+        assertThat(records.get(1).sequence()).isEqualTo(AudioJournal.NO_SEQUENCE);
+        assertThat(records.get(1).language()).isNull();
+        assertThat(records.get(1).audioBytes()).isEqualTo(audio(50, 2));
+    }
+
+    @Test
+    void processedFlagIsPersisted() throws IOException {
+        AudioJournal journal = new AudioJournal(dir, 64 * 1024, 16, 4);
+        AudioJournal.Handle first = journal.append(0, 0, "vi", audio(10, 1));
+        journal.append(1, 0, "vi", audio(10, 2));
+        first.markProcessed();
+        journal.close();
+
+        List<AudioJournal.JournalRecord> records = scan();
+
+        assertThat(records).extracting(AudioJournal.JournalRecord::processed).containsExactly(true, false);
+
+        // Handles from a scan work too (replay after restart)
+        records.get(1).handle().markProcessed();
+        assertThat(scan()).allMatch(AudioJournal.JournalRecord::processed);
+    }
+
+    @Test
+    void recordWithBadCrcIsSkipped() throws IOException {
+        AudioJournal journal = new AudioJournal(dir, 64 * 1024, 16, 4);
+        journal.append(0, 0, "en", audio(100, 1));
+        journal.append(1, 0, "en", audio(100, 2));
+        journal.close();
+
+        // Flip one audio byte of the first record
+        writeByte(dir.resolve("0000000000.seg"), RECORD_HEADER_SIZE + 2 + 10, (byte) 0x7F);
+
+        assertThat(scan()).extracting(AudioJournal.JournalRecord::sequence).containsExactly(1L);
+    }
+
+    @Test
+    void tornAppendIsIgnored() throws IOException {
+        AudioJournal journal = new AudioJournal(dir, 64 * 1024, 16, 4);
+        journal.append(0, 0, "en", audio(100, 1));
+        journal.append(1, 0, "en", audio(100, 2));
+        journal.append(2, 0, "en", audio(100, 3));
+        journal.close();
+
+        // Crash before the second slot was published: the scan stops there
+        writeInt(dir.resolve("0000000000.idx"), SLOT_SIZE + 12, 0);
+
+        assertThat(scan()).extracting(AudioJournal.JournalRecord::sequence).containsExactly(0L);
+    }
+
+    @Test
+    void truncatedRecordIsSkipped() throws IOException {
+        AudioJournal journal = new AudioJournal(dir, 64 * 1024, 16, 4);
+        journal.append(0, 0, "en", audio(100, 1));
+        journal.close();
+
+        // Slot published but the audio length points past the end of the segment
+        writeInt(dir.resolve("0000000000.seg"), 4, 1 << 20);
+
+        assertThat(scan()).isEmpty();
+    }
+
+    @Test
+    void rotatesAndKeepsNewestSegments() throws IOException {
+        // Two records of 100 bytes fit in a segment
+        int recordSize = RECORD_HEADER_SIZE + 2 + 100;
+        AudioJournal journal = new AudioJournal(dir, recordSize * 2, 16, 2);
+        for (int i = 0; i < 6; i++) {
+            journal.append(i, 0, "en", audio(100, i));
+        }
+        journal.close();
+
+        assertThat(segmentFiles()).containsExactly("0000000001.seg", "0000000002.seg");
+        assertThat(scan()).extracting(AudioJournal.JournalRecord::sequence).containsExactly(2L, 3L, 4L, 5L);
+    }
+
+    @Test
+    void rotatesWhenIndexIsFull() throws IOException {
+        AudioJournal journal = new AudioJournal(dir, 64 * 1024, 1, 8);
+        journal.append(0, 0, "en", audio(10, 1));
+        journal.append(1, 0, "en", audio(10, 2));
+        journal.close();
+
+        assertThat(segmentFiles()).hasSize(2);
+        assertThat(scan()).extracting(AudioJournal.JournalRecord::sequence).containsExactly(0L, 1L);
+    }
+
+    @Test
+    void reopenedJournalAppendsToNewSegment() throws IOException {
+        AudioJournal journal = new AudioJournal(dir, 64 * 1024, 16, 4);
+        journal.append(0, 0, "en", audio(10, 1));
+        journal.close();
+
+        AudioJournal reopened = new AudioJournal(dir, 64 * 1024, 16, 4);
+        reopened.append(1, 0, "en", audio(10, 2));
+        reopened.close();
+
+        assertThat(scan()).extracting(AudioJournal.JournalRecord::sequence).containsExactly(0L, 1L);
+    }
+
+    private List<AudioJournal.JournalRecord> scan() throws IOException {
+        List<AudioJournal.JournalRecord> records = new ArrayList<>();
+        AudioJournal.scan(dir, records::add);
+        return records;
+    }
+
+    private List<String> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.map(path -> path.getFileName().toString())
+                        .filter(name -> name.endsWith(".seg"))
+                        .sorted()
+                        .toList();
+        }
+    }
+
+    private static byte[] audio(int length, int seed) {
+        byte[] audio = new byte[length];
+        for (int i = 0; i < length; i++) {
+            audio[i] = (byte) (i * 31 + seed);
+        }
+        return audio;
+    }
+
+    private static void writeByte(Path file, long position, byte value) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{value}), position);
+        }
+    }
+
+    private static void writeInt(Path file, long position, int value) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(4).putInt(0, value), position);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.translator.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.translator.backend.dto.FinalTranslationDTO;
+import com.translator.backend.dto.PartialCaptionDTO;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Caption payload size and serialization time, JSON vs CBOR, as CaptionPublisher
+ * encodes them. Not part of the regular test run (surefire only picks up *Test),
+ * run it explicitly:
+ *
+ *   mvn test -Dtest=CaptionEncodingBenchmark [-Dcaptions.rounds=200]
+ */
+class CaptionEncodingBenchmark {
+
+    // Typical caption lengths: short interjections up to long sentences
+    private static final String[][] SAMPLES = {
+        {"ja", "はい", "vi", "Vâng"},
+        {"ja", "今日の会議を始めましょう", "vi", "Hãy bắt đầu cuộc họp hôm nay"},
+        {"ja", "来週までに見積もりを送っていただけますか、それとも今月末になりますか", "vi",
+            "Anh có thể gửi báo giá trước tuần sau không, hay phải đến cuối tháng này?"},
+        {"en", "Okay", "vi", "Được"},
+        {"en", "Let's go through the quarterly numbers first", "vi", "Hãy xem qua các số liệu quý trước"},
+        {"vi", "Tôi nghĩ chúng ta nên hoãn việc triển khai sang tuần sau để kiểm thử thêm", "ja",
+            "テストを増やすために、展開を来週に延期すべきだと思います"},
+    };
+
+    @Test
+    void encodingCost() throws Exception {
+        int messages = Integer.getInteger("captions.messages", 1_000);
+        int rounds = Integer.getInteger("captions.rounds", 200);
+
+        Random random = new Random(42);
+        List<PartialCaptionDTO> partials = new ArrayList<>(messages);
+        List<FinalTranslationDTO> finals = new ArrayList<>(messages);
+        String sessionId = UUID.randomUUID().toString();
+        long timestamp = System.currentTimeMillis();
+        for (int i = 0; i < messages; i++) {
+            String[] sample = SAMPLES[random.nextInt(SAMPLES.length)];
+            timestamp += 200 + random.nextInt(800);
+            partials.add(new PartialCaptionDTO(sample[1], sample[0], timestamp, sessionId));
+            finals.add(new FinalTranslationDTO(UUID.randomUUID().toString(),
+                    sample[1], sample[0], sample[3], sample[2], timestamp, sessionId));
+        }
+
+        ObjectMapper json = new ObjectMapper();
+        CBORMapper cbor = new CBORMapper();
+
+        // Warm up every encoder before timing any of them
+        for (ObjectMapper mapper : List.of(json, cbor)) {
+            encode(mapper, partials, rounds);
+            encode(mapper, finals, rounds);
+        }
+
+        System.out.printf("captions: %d messages x %d rounds%n", messages, rounds);
+        report("partial", "json", json, partials, rounds);
+        report("partial", "cbor", cbor, partials, rounds);
+        report("final", "json", json, finals, rounds);
+        report("final", "cbor", cbor, finals, rounds);
+    }
+
+    private static void report(String type, String encoding, ObjectMapper mapper,
+                               List<?> payloads, int rounds) throws Exception {
+        long bytes = 0;
+        for (Object payload : payloads) {
+            bytes += mapper.writeValueAsBytes(payload).length;
+        }
+
+        long start = System.nanoTime();
+        long sink = encode(mapper, payloads, rounds);
+        long elapsed = System.nanoTime() - start;
+        if (sink != bytes * rounds) {
+            throw new IllegalStateException("Encoding is not deterministic");
+        }
+
+        System.out.printf("%-7s %s: %6.1f bytes/msg, %6.0f ns/msg%n", type, encoding,
+                (double) bytes / payloads.size(), (double) elapsed / ((long) rounds * payloads.size()));
+    }
+
+    /**
+     * @return total bytes, so the JIT can't drop the work
+     */
+    private static long encode(ObjectMapper mapper, List<?> payloads, int rounds) throws Exception {
+        long total = 0;
+        for (int r = 0; r < rounds; r++) {
+            for (Object payload : payloads) {
+                total += mapper.writeValueAsBytes(payload).length;
+            }
+        }
+        return total;
+    }
+}
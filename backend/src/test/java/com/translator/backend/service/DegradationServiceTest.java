@@ -0,0 +1,196 @@
+package com.translator.backend.service;
+
+import com.translator.backend.service.DegradationService.Step;
+import com.translator.backend.service.DegradationService.Upstream;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DegradationServiceTest {
+
+    private final BlockingQueue<Runnable> queue = new LinkedBlockingQueue<>();
+    private final MutableClock clock = new MutableClock();
+    private DegradationService service;
+
+    @BeforeEach
+    void setUp() {
+        ThreadPoolExecutor executor = mock(ThreadPoolExecutor.class);
+        when(executor.getQueue()).thenReturn(queue);
+        service = new DegradationService(executor, mock(ScheduledExecutorService.class),
+                new SimpleMeterRegistry(), clock);
+        ReflectionTestUtils.setField(service, "steps",
+                List.of(Step.COALESCE_AUDIO, Step.SKIP_LANGUAGE_VERIFY, Step.SUSPEND_PARTIALS));
+        ReflectionTestUtils.setField(service, "queueDepthPerLevel", 8);
+        ReflectionTestUtils.setField(service, "asrLatencyThresholdMs", 2500L);
+        ReflectionTestUtils.setField(service, "chatLatencyThresholdMs", 2500L);
+        ReflectionTestUtils.setField(service, "recoverAfterMs", 10_000L);
+    }
+
+    @Test
+    void backlogEscalatesOneLevelPerInterval() {
+        backlog(24);
+
+        service.evaluate();
+        assertThat(active()).containsExactly(Step.COALESCE_AUDIO);
+
+        service.evaluate();
+        assertThat(active()).containsExactly(Step.COALESCE_AUDIO, Step.SKIP_LANGUAGE_VERIFY);
+
+        service.evaluate();
+        service.evaluate();
+        assertThat(active()).containsExactly(Step.COALESCE_AUDIO, Step.SKIP_LANGUAGE_VERIFY, Step.SUSPEND_PARTIALS);
+    }
+
+    @Test
+    void recoversOneLevelAfterPressureStayedLow() {
+        backlog(16);
+        service.evaluate();
+        service.evaluate();
+        backlog(0);
+
+        service.evaluate();
+        clock.advance(9_999);
+        service.evaluate();
+        assertThat(active()).containsExactly(Step.COALESCE_AUDIO, Step.SKIP_LANGUAGE_VERIFY);
+
+        clock.advance(1);
+        service.evaluate();
+        assertThat(active()).containsExactly(Step.COALESCE_AUDIO);
+
+        clock.advance(5_000);
+        service.evaluate();
+        assertThat(active()).containsExactly(Step.COALESCE_AUDIO);
+
+        clock.advance(5_000);
+        service.evaluate();
+        assertThat(active()).isEmpty();
+    }
+
+    @Test
+    void pressureReturningRestartsRecovery() {
+        backlog(8);
+        service.evaluate();
+        backlog(0);
+        service.evaluate();
+        clock.advance(8_000);
+
+        backlog(8);
+        service.evaluate();
+        backlog(0);
+        service.evaluate();
+        clock.advance(8_000);
+        service.evaluate();
+
+        assertThat(active()).containsExactly(Step.COALESCE_AUDIO);
+    }
+
+    @Test
+    void slowChatSkipsAsrOnlySteps() {
+        service.recordUpstreamLatency(Upstream.CHAT, 6_000);
+        service.evaluate();
+
+        assertThat(active()).containsExactly(Step.SKIP_LANGUAGE_VERIFY);
+
+        service.recordUpstreamLatency(Upstream.CHAT, 6_000);
+        service.evaluate();
+
+        assertThat(active()).containsExactly(Step.SKIP_LANGUAGE_VERIFY, Step.SUSPEND_PARTIALS);
+    }
+
+    @Test
+    void slowAsrAppliesAsrStepsFirst() {
+        service.recordUpstreamLatency(Upstream.ASR, 3_000);
+        service.evaluate();
+
+        assertThat(active()).containsExactly(Step.COALESCE_AUDIO);
+    }
+
+    @Test
+    void slowChatUsesTheFastModel() {
+        ReflectionTestUtils.setField(service, "steps",
+                List.of(Step.COALESCE_AUDIO, Step.FAST_MODEL, Step.SUSPEND_PARTIALS));
+
+        service.recordUpstreamLatency(Upstream.CHAT, 3_000);
+        service.evaluate();
+
+        assertThat(active()).containsExactly(Step.FAST_MODEL);
+    }
+
+    @Test
+    void slowAsrNeverCountsTheChatStep() {
+        ReflectionTestUtils.setField(service, "steps",
+                List.of(Step.COALESCE_AUDIO, Step.FAST_MODEL, Step.SUSPEND_PARTIALS));
+
+        for (int i = 0; i < 3; i++) {
+            service.recordUpstreamLatency(Upstream.ASR, 10_000);
+            service.evaluate();
+        }
+
+        assertThat(active()).containsExactly(Step.COALESCE_AUDIO, Step.SUSPEND_PARTIALS);
+    }
+
+    @Test
+    void unconfiguredStepIsNeverActive() {
+        backlog(80);
+        service.evaluate();
+        service.evaluate();
+        service.evaluate();
+        service.evaluate();
+
+        assertThat(service.isActive(Step.FAST_MODEL)).isFalse();
+    }
+
+    private List<Step> active() {
+        return List.of(Step.values()).stream().filter(service::isActive).toList();
+    }
+
+    private void backlog(int depth) {
+        queue.clear();
+        for (int i = 0; i < depth; i++) {
+            queue.add(() -> { });
+        }
+    }
+
+    private static final class MutableClock extends Clock {
+        private long millis = 1_000_000;
+
+        void advance(long ms) {
+            millis += ms;
+        }
+
+        @Override
+        public long millis() {
+            return millis;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.translator.backend.service;
+
+import com.translator.backend.model.LanguagePair;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InMemorySessionStateStoreTest {
+
+    private final InMemorySessionStateStore store = new InMemorySessionStateStore();
+
+    @Test
+    void duplicateTextIsDetectedPerSession() {
+        store.initSession("s1", new LanguagePair("ja", "vi"));
+
+        assertThat(store.markProcessed("s1", "こんにちは")).isTrue();
+        assertThat(store.markProcessed("s1", "こんにちは")).isFalse();
+        assertThat(store.markProcessed("s2", "こんにちは")).isTrue();
+    }
+
+    @Test
+    void initSessionResetsDuplicateDetection() {
+        store.initSession("s1", new LanguagePair("ja", "vi"));
+        store.markProcessed("s1", "こんにちは");
+
+        store.initSession("s1", new LanguagePair("en", "vi"));
+
+        assertThat(store.getLanguages("s1").getLang1()).isEqualTo("en");
+        assertThat(store.markProcessed("s1", "こんにちは")).isTrue();
+    }
+
+    @Test
+    void clearSessionForgetsLanguages() {
+        store.initSession("s1", new LanguagePair("ja", "vi"));
+
+        store.clearSession("s1");
+
+        assertThat(store.getLanguages("s1")).isNull();
+        assertThat(store.getLanguages("unknown")).isNull();
+    }
+}
@@ -0,0 +1,70 @@
+package com.translator.backend.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The system message is the stable prompt prefix: identical bytes on every call
+ */
+class PromptLayoutTest {
+
+    @TempDir
+    Path dir;
+
+    private final TranslationService translationService = new TranslationService(
+            null, new TranslationMemoryService(), null, new ObjectMapper(), new SimpleMeterRegistry());
+
+    @Test
+    void systemMessageIsByteIdenticalAcrossCalls() throws IOException {
+        Path glossary = dir.resolve("glossary.txt");
+        Files.writeString(glossary, "# comment\nスプリント → sprint\n\nデプロイ → triển khai\n");
+        ReflectionTestUtils.setField(translationService, "glossaryFile", glossary.toString());
+        translationService.loadGlossary();
+
+        ObjectNode plain = translationService.buildRequestJson(
+                "おはようございます", "ja", "vi", List.of(), List.of(), "gpt-3.5-turbo");
+        ObjectNode withContext = translationService.buildRequestJson(
+                "デプロイは明日です", "ja", "vi",
+                List.of(new TranslationMemoryService.Match(
+                        new TranslationMemoryService.Entry("デプロイは今日です", "ja", "Hôm nay triển khai", "vi", 8), 0.7)),
+                List.of(new SessionContextService.ContextEntry("おはようございます", "ja", "Chào buổi sáng", "vi")),
+                "gpt-4o");
+
+        JsonNode first = plain.get("messages").get(0);
+        JsonNode second = withContext.get("messages").get(0);
+        assertThat(first.get("role").asText()).isEqualTo("system");
+        assertThat(first.toString()).isEqualTo(second.toString());
+        assertThat(first.get("content").asText())
+                .contains("スプリント → sprint", "デプロイ → triển khai")
+                .doesNotContain("# comment", "おはよう", "明日");
+    }
+
+    @Test
+    void perRequestDataFollowsThePrefix() {
+        ObjectNode request = translationService.buildRequestJson(
+                "デプロイは明日です", "ja", "vi",
+                List.of(new TranslationMemoryService.Match(
+                        new TranslationMemoryService.Entry("デプロイは今日です", "ja", "Hôm nay triển khai", "vi", 8), 0.7)),
+                List.of(new SessionContextService.ContextEntry("おはようございます", "ja", "Chào buổi sáng", "vi")),
+                "gpt-3.5-turbo");
+
+        JsonNode messages = request.get("messages");
+        assertThat(messages).hasSize(4);
+        assertThat(messages.get(1).get("content").asText()).contains("デプロイは今日です → Hôm nay triển khai");
+        assertThat(messages.get(2).get("content").asText()).contains("[ja] おはようございます → [vi] Chào buổi sáng");
+        assertThat(messages.get(3).get("content").asText())
+                .isEqualTo("Translate from Japanese to Vietnamese:\nデプロイは明日です");
+    }
+}
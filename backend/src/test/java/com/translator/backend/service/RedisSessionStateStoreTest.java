@@ -0,0 +1,95 @@
+package com.translator.backend.service;
+
+import com.translator.backend.model.LanguagePair;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RedisSessionStateStoreTest {
+
+    private final StringRedisTemplate redis = mock(StringRedisTemplate.class);
+    @SuppressWarnings("unchecked")
+    private final HashOperations<String, Object, Object> hashOps = mock(HashOperations.class);
+    private final RedisSessionStateStore store = new RedisSessionStateStore(redis);
+
+    RedisSessionStateStoreTest() {
+        ReflectionTestUtils.setField(store, "ttl", Duration.ofHours(6));
+        when(redis.opsForHash()).thenReturn(hashOps);
+    }
+
+    @Test
+    void markProcessedRefreshesBothKeysInOneScript() {
+        when(redis.execute(eq(RedisSessionStateStore.MARK_PROCESSED), anyList(), any(Object[].class)))
+                .thenReturn(1L, 0L);
+
+        assertThat(store.markProcessed("s1", "こんにちは")).isTrue();
+        assertThat(store.markProcessed("s1", "こんにちは")).isFalse();
+
+        verify(redis, times(2)).execute(
+                RedisSessionStateStore.MARK_PROCESSED,
+                List.of("mt:session:s1:texts", "mt:session:s1:langs"),
+                "こんにちは", "21600");
+    }
+
+    @Test
+    void markProcessedScriptExpiresLanguagesToo() {
+        String script = RedisSessionStateStore.MARK_PROCESSED.getScriptAsString();
+
+        assertThat(script).contains("SADD', KEYS[1]", "EXPIRE', KEYS[1]", "EXPIRE', KEYS[2]");
+        assertThat(RedisSessionStateStore.MARK_PROCESSED.getResultType()).isEqualTo(Long.class);
+    }
+
+    @Test
+    void initSessionStoresLanguagesWithTtl() {
+        store.initSession("s1", new LanguagePair("ja", "vi"));
+
+        verify(redis).delete(List.of("mt:session:s1:langs", "mt:session:s1:texts"));
+        verify(hashOps).putAll("mt:session:s1:langs", Map.of("lang1", "ja", "lang2", "vi"));
+        verify(redis).expire("mt:session:s1:langs", Duration.ofHours(6));
+    }
+
+    @Test
+    void ownerLeaseIsClaimedAndTakenOverWithScripts() {
+        when(redis.execute(RedisSessionStateStore.CLAIM_OWNER, List.of("mt:session:s1:owner"),
+                "http://a:8080", "30000")).thenReturn("http://b:8080");
+        when(redis.execute(RedisSessionStateStore.TAKE_OVER_OWNER, List.of("mt:session:s1:owner"),
+                "http://a:8080", "http://b:8080", "30000")).thenReturn("http://a:8080");
+
+        assertThat(store.claimOwner("s1", "http://a:8080", Duration.ofSeconds(30))).isEqualTo("http://b:8080");
+        assertThat(store.takeOverOwner("s1", "http://b:8080", "http://a:8080", Duration.ofSeconds(30)))
+                .isEqualTo("http://a:8080");
+    }
+
+    @Test
+    void clearSessionReleasesOwner() {
+        store.clearSession("s1");
+
+        verify(redis).delete(List.of("mt:session:s1:langs", "mt:session:s1:texts", "mt:session:s1:owner"));
+    }
+
+    @Test
+    void missingLanguagesAreNull() {
+        when(hashOps.multiGet("mt:session:s1:langs", List.of("lang1", "lang2")))
+                .thenReturn(Arrays.asList("ja", "vi"));
+        when(hashOps.multiGet("mt:session:s2:langs", List.of("lang1", "lang2")))
+                .thenReturn(Arrays.asList(null, null));
+
+        assertThat(store.getLanguages("s1").getLang2()).isEqualTo("vi");
+        assertThat(store.getLanguages("s2")).isNull();
+    }
+}
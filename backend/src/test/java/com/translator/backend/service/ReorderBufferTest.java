@@ -0,0 +1,117 @@
+package com.translator.backend.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReorderBufferTest {
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    private final List<String> emitted = Collections.synchronizedList(new ArrayList<>());
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    void emitsInSequenceOrder() {
+        ReorderBuffer<String> buffer = new ReorderBuffer<>("test", emitted::add, scheduler, 10_000, 0);
+
+        buffer.offer(2, "c");
+        buffer.offer(1, "b");
+        assertThat(emitted).isEmpty();
+
+        buffer.offer(0, "a");
+        assertThat(emitted).containsExactly("a", "b", "c");
+        assertThat(buffer.pendingCount()).isZero();
+    }
+
+    @Test
+    void skippedSequenceDoesNotBlock() {
+        ReorderBuffer<String> buffer = new ReorderBuffer<>("test", emitted::add, scheduler, 10_000, 5);
+
+        buffer.offer(7, "c");
+        buffer.skip(5);
+        buffer.offer(6, "b");
+
+        assertThat(emitted).containsExactly("b", "c");
+    }
+
+    @Test
+    void gapTimeoutGivesUpMissingSequence() throws InterruptedException {
+        CountDownLatch first = new CountDownLatch(1);
+        CountDownLatch both = new CountDownLatch(2);
+        ReorderBuffer<String> buffer = new ReorderBuffer<>("test", item -> {
+            emitted.add(item);
+            first.countDown();
+            both.countDown();
+        }, scheduler, 50, 0);
+
+        buffer.offer(1, "b");
+        assertThat(first.await(2, TimeUnit.SECONDS)).isTrue();
+        assertThat(emitted).containsExactly("b");
+
+        // #0 arrives after its slot was given up: emitted rather than dropped
+        // (possibly by the timer thread, if it is still delivering)
+        buffer.offer(0, "a");
+        assertThat(both.await(2, TimeUnit.SECONDS)).isTrue();
+        assertThat(emitted).containsExactly("b", "a");
+    }
+
+    @Test
+    void closeDropsPendingAndLaterItems() {
+        ReorderBuffer<String> buffer = new ReorderBuffer<>("test", emitted::add, scheduler, 10_000, 0);
+
+        buffer.offer(1, "b");
+        buffer.close();
+        buffer.offer(0, "a");
+        buffer.skip(2);
+
+        assertThat(emitted).isEmpty();
+        assertThat(buffer.pendingCount()).isZero();
+    }
+
+    @Test
+    void sinkMayReenterTheBuffer() {
+        List<ReorderBuffer<String>> self = new ArrayList<>();
+        ReorderBuffer<String> buffer = new ReorderBuffer<>("test", item -> {
+            emitted.add(item);
+            if (item.equals("a")) {
+                self.get(0).offer(1, "b");
+            }
+        }, scheduler, 10_000, 0);
+        self.add(buffer);
+
+        buffer.offer(0, "a");
+
+        assertThat(emitted).containsExactly("a", "b");
+    }
+
+    @Test
+    void concurrentOffersAreEmittedOnceInOrder() throws InterruptedException {
+        int count = 2_000;
+        ReorderBuffer<String> buffer = new ReorderBuffer<>("test", emitted::add, scheduler, 10_000, 0);
+        List<Integer> sequences = new ArrayList<>(IntStream.range(0, count).boxed().toList());
+        Collections.shuffle(sequences);
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        sequences.forEach(sequence -> pool.execute(() -> buffer.offer(sequence, String.valueOf(sequence))));
+        pool.shutdown();
+        assertThat(pool.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(emitted).containsExactlyElementsOf(
+                IntStream.range(0, count).mapToObj(String::valueOf).toList());
+    }
+}
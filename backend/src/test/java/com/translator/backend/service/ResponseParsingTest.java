@@ -0,0 +1,111 @@
+package com.translator.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Streaming parsers of the Whisper and chat completion responses
+ */
+class ResponseParsingTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final WhisperService whisperService = new WhisperService(null, objectMapper);
+    private final TranslationService translationService = new TranslationService(
+            null, new TranslationMemoryService(), null, objectMapper, new SimpleMeterRegistry());
+
+    @Test
+    void transcriptionSkipsSegmentsAndTrimsText() throws IOException {
+        WhisperService.TranscriptionResult result = whisperService.parseTranscription(json("""
+                {"task":"transcribe","language":"japanese","duration":1.5,
+                 "segments":[{"id":0,"start":0.0,"end":1.5,"text":"ignored","tokens":[1,2,3],
+                              "nested":{"text":"also ignored"}}],
+                 "text":"  こんにちは  "}
+                """));
+
+        assertThat(result.text).isEqualTo("こんにちは");
+        assertThat(result.detectedLanguage).isEqualTo("japanese");
+        assertThat(result.isRejected()).isFalse();
+    }
+
+    @Test
+    void transcriptionWithoutLanguageIsUnknown() throws IOException {
+        WhisperService.TranscriptionResult result = whisperService.parseTranscription(json("""
+                {"text":"xin chào"}
+                """));
+
+        assertThat(result.text).isEqualTo("xin chào");
+        assertThat(result.detectedLanguage).isEqualTo("unknown");
+    }
+
+    @Test
+    void transcriptionWithoutTextFails() {
+        assertThatThrownBy(() -> whisperService.parseTranscription(json("""
+                {"language":"english","segments":[]}
+                """))).isInstanceOf(IOException.class);
+        assertThatThrownBy(() -> whisperService.parseTranscription(json("[]")))
+                .isInstanceOf(IOException.class);
+    }
+
+    @Test
+    void chatResponseTakesFirstChoiceAndUsage() throws IOException {
+        TranslationService.ChatResponse response = translationService.parseChatResponse(json("""
+                {"id":"chatcmpl-1","object":"chat.completion",
+                 "choices":[
+                   {"index":0,"message":{"role":"assistant","content":"Xin chào","refusal":null},
+                    "logprobs":null,"finish_reason":"stop"},
+                   {"index":1,"message":{"role":"assistant","content":"second"}}],
+                 "usage":{"prompt_tokens":1200,"completion_tokens":4,
+                          "prompt_tokens_details":{"cached_tokens":1024,"audio_tokens":0},
+                          "completion_tokens_details":{"reasoning_tokens":0}},
+                 "system_fingerprint":"fp"}
+                """));
+
+        assertThat(response.content).isEqualTo("Xin chào");
+        assertThat(response.hasUsage).isTrue();
+        assertThat(response.promptTokens).isEqualTo(1200);
+        assertThat(response.completionTokens).isEqualTo(4);
+        assertThat(response.cachedTokens).isEqualTo(1024);
+    }
+
+    @Test
+    void chatResponseWithoutUsageOrContent() throws IOException {
+        TranslationService.ChatResponse response = translationService.parseChatResponse(json("""
+                {"choices":[{"index":0,"message":{"role":"assistant","content":null}}],
+                 "usage":null}
+                """));
+
+        assertThat(response.content).isNull();
+        assertThat(response.hasUsage).isFalse();
+    }
+
+    @Test
+    void chatResponseWithoutCacheDetails() throws IOException {
+        TranslationService.ChatResponse response = translationService.parseChatResponse(json("""
+                {"usage":{"prompt_tokens":80,"completion_tokens":6},
+                 "choices":[{"message":{"content":"こんにちは"}}]}
+                """));
+
+        assertThat(response.content).isEqualTo("こんにちは");
+        assertThat(response.promptTokens).isEqualTo(80);
+        assertThat(response.cachedTokens).isZero();
+    }
+
+    @Test
+    void chatResponseMustBeAnObject() {
+        assertThatThrownBy(() -> translationService.parseChatResponse(json("\"error\"")))
+                .isInstanceOf(IOException.class);
+    }
+
+    private static InputStream json(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
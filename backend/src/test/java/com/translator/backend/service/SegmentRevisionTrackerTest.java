@@ -0,0 +1,122 @@
+package com.translator.backend.service;
+
+import okhttp3.Call;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class SegmentRevisionTrackerTest {
+
+    private final SegmentRevisionTracker tracker = new SegmentRevisionTracker();
+
+    @Test
+    void olderRevisionArrivingLateIsRejected() {
+        SegmentRevisionTracker.Ticket newer = tracker.register("s1", "seg-1", 3, false, "ohayou gozaimasu");
+        SegmentRevisionTracker.Ticket older = tracker.register("s1", "seg-1", 2, false, "ohayou");
+
+        assertThat(older.isCancelled()).isTrue();
+        assertThat(newer.isCancelled()).isFalse();
+    }
+
+    @Test
+    void newerRevisionCancelsAttachedCall() {
+        Call call = mock(Call.class);
+        SegmentRevisionTracker.Ticket first = tracker.register("s1", "seg-1", 1, false, "ohayou");
+        first.attach(call);
+        verify(call, never()).cancel();
+
+        tracker.register("s1", "seg-1", 2, false, "ohayou gozaimasu");
+
+        assertThat(first.isCancelled()).isTrue();
+        verify(call).cancel();
+    }
+
+    @Test
+    void callAttachedAfterCancellationIsCancelledRightAway() {
+        Call call = mock(Call.class);
+        SegmentRevisionTracker.Ticket stale = tracker.register("s1", "seg-1", 1, false, "ohayou");
+        tracker.register("s1", "seg-1", 2, false, "ohayou gozaimasu");
+
+        stale.attach(call);
+
+        verify(call).cancel();
+    }
+
+    @Test
+    void finalSupersedesInterim() {
+        SegmentRevisionTracker.Ticket interim = tracker.register("s1", "seg-1", 4, false, "ohayou");
+        SegmentRevisionTracker.Ticket fin = tracker.register("s1", "seg-1", 5, true, "ohayou gozaimasu");
+
+        assertThat(interim.isCancelled()).isTrue();
+        assertThat(fin.isCancelled()).isFalse();
+        assertThat(fin.isFinalRevision()).isTrue();
+        assertThat(fin.getReusedTranslation()).isNull();
+    }
+
+    @Test
+    void segmentsAndSessionsAreIndependent() {
+        SegmentRevisionTracker.Ticket a = tracker.register("s1", "seg-1", 5, false, "a");
+        SegmentRevisionTracker.Ticket b = tracker.register("s1", "seg-2", 1, false, "b");
+        SegmentRevisionTracker.Ticket c = tracker.register("s2", "seg-1", 1, false, "c");
+
+        assertThat(a.isCancelled()).isFalse();
+        assertThat(b.isCancelled()).isFalse();
+        assertThat(c.isCancelled()).isFalse();
+    }
+
+    @Test
+    void finalWithSameTextReusesCompletedInterim() {
+        SegmentRevisionTracker.Ticket interim = tracker.register("s1", "seg-1", 4, false, "おはようございます");
+        tracker.complete(interim, "Chào buổi sáng");
+
+        SegmentRevisionTracker.Ticket fin = tracker.register("s1", "seg-1", 5, true, " おはようございます ");
+
+        assertThat(fin.getReusedTranslation()).isEqualTo("Chào buổi sáng");
+    }
+
+    @Test
+    void interimArrivingAfterCompletedFinalIsRejected() {
+        SegmentRevisionTracker.Ticket fin = tracker.register("s1", "seg-1", 5, true, "おはようございます");
+        tracker.complete(fin, "Chào buổi sáng");
+
+        assertThat(tracker.register("s1", "seg-1", 4, false, "おはよう").isCancelled()).isTrue();
+    }
+
+    @Test
+    void finalWithDifferentTextIsTranslatedAgain() {
+        SegmentRevisionTracker.Ticket interim = tracker.register("s1", "seg-1", 4, false, "おはよう");
+        tracker.complete(interim, "Chào");
+
+        SegmentRevisionTracker.Ticket fin = tracker.register("s1", "seg-1", 5, true, "おはようございます");
+
+        assertThat(fin.getReusedTranslation()).isNull();
+    }
+
+    @Test
+    void failedOrSupersededInterimIsNotReused() {
+        SegmentRevisionTracker.Ticket failed = tracker.register("s1", "seg-1", 1, false, "おはよう");
+        tracker.complete(failed, null);
+        assertThat(tracker.trackedSegments()).isZero();
+
+        SegmentRevisionTracker.Ticket superseded = tracker.register("s1", "seg-2", 1, false, "こんにちは");
+        tracker.register("s1", "seg-2", 2, false, "こんにちは");
+        tracker.complete(superseded, "Xin chào");
+
+        SegmentRevisionTracker.Ticket fin = tracker.register("s1", "seg-2", 3, true, "こんにちは");
+        assertThat(fin.getReusedTranslation()).isNull();
+    }
+
+    @Test
+    void forgetSessionDropsOnlyThatSession() {
+        tracker.complete(tracker.register("s1", "seg-1", 1, false, "a"), "A");
+        tracker.complete(tracker.register("s10", "seg-1", 1, false, "b"), "B");
+
+        tracker.forgetSession("s1");
+
+        assertThat(tracker.trackedSegments()).isEqualTo(1);
+        assertThat(tracker.register("s10", "seg-1", 2, true, "b").getReusedTranslation()).isEqualTo("B");
+    }
+}
@@ -0,0 +1,107 @@
+package com.translator.backend.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SentenceAggregatorTest {
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    private final List<SentenceAggregator.Sentence> sentences = Collections.synchronizedList(new ArrayList<>());
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    void joinsFragmentsUntilEndPunctuation() {
+        SentenceAggregator aggregator = new SentenceAggregator(sentences::add, scheduler, 10_000, 300);
+
+        aggregator.append("the meeting", "en", "en");
+        aggregator.append("starts at nine.", "en", "en");
+        aggregator.append("Any questions?", "en", "en");
+
+        assertThat(sentences).extracting(SentenceAggregator.Sentence::text)
+                .containsExactly("the meeting starts at nine.", "Any questions?");
+        assertThat(sentences).extracting(SentenceAggregator.Sentence::index).containsExactly(0L, 1L);
+    }
+
+    @Test
+    void joinsCjkWithoutSpaces() {
+        SentenceAggregator aggregator = new SentenceAggregator(sentences::add, scheduler, 10_000, 300);
+
+        aggregator.append("会議は", "ja", "ja");
+        aggregator.append("九時に始まります。", "ja", "ja");
+
+        assertThat(sentences).extracting(SentenceAggregator.Sentence::text)
+                .containsExactly("会議は九時に始まります。");
+    }
+
+    @Test
+    void languageChangeEndsSentence() {
+        SentenceAggregator aggregator = new SentenceAggregator(sentences::add, scheduler, 10_000, 300);
+
+        aggregator.append("xin chào", "vi", "vi");
+        aggregator.append("こんにちは", "ja", "vi");
+
+        assertThat(sentences).hasSize(1);
+        assertThat(sentences.get(0).text()).isEqualTo("xin chào");
+        assertThat(sentences.get(0).language()).isEqualTo("vi");
+    }
+
+    @Test
+    void longSentenceIsCutAtMaxChars() {
+        SentenceAggregator aggregator = new SentenceAggregator(sentences::add, scheduler, 10_000, 20);
+
+        aggregator.append("a fairly long fragment", "en", "en");
+
+        assertThat(sentences).hasSize(1);
+    }
+
+    @Test
+    void pauseEmitsBufferedText() throws InterruptedException {
+        CountDownLatch emitted = new CountDownLatch(1);
+        SentenceAggregator aggregator = new SentenceAggregator(sentence -> {
+            sentences.add(sentence);
+            emitted.countDown();
+        }, scheduler, 50, 300);
+
+        aggregator.append("no punctuation here", "en", "en");
+
+        assertThat(emitted.await(2, TimeUnit.SECONDS)).isTrue();
+        assertThat(sentences.get(0).text()).isEqualTo("no punctuation here");
+    }
+
+    @Test
+    void flushEmitsTailAndCloseDiscardsIt() {
+        SentenceAggregator aggregator = new SentenceAggregator(sentences::add, scheduler, 10_000, 300);
+
+        aggregator.append("unfinished", "en", "en");
+        aggregator.flush();
+        aggregator.append("discarded", "en", "en");
+        aggregator.close();
+        aggregator.flush();
+
+        assertThat(sentences).extracting(SentenceAggregator.Sentence::text).containsExactly("unfinished");
+    }
+
+    @Test
+    void blankFragmentsAreIgnored() {
+        SentenceAggregator aggregator = new SentenceAggregator(sentences::add, scheduler, 10_000, 300);
+
+        aggregator.append("   ", "en", "en");
+        aggregator.flush();
+
+        assertThat(sentences).isEmpty();
+    }
+}
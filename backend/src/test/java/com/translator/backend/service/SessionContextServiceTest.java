@@ -0,0 +1,78 @@
+package com.translator.backend.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SessionContextServiceTest {
+
+    private final SessionContextService contextService = new SessionContextService();
+
+    @Test
+    void oldestEntriesDropWhenEntryCountExceeded() {
+        configure(10_000, 3);
+
+        for (int i = 0; i < 5; i++) {
+            contextService.record("s1", "source " + i, "en", "dịch " + i, "vi");
+        }
+
+        assertThat(contextService.snapshot("s1"))
+                .extracting(SessionContextService.ContextEntry::sourceText)
+                .containsExactly("source 2", "source 3", "source 4");
+    }
+
+    @Test
+    void oldestEntriesDropWhenTokenBudgetExceeded() {
+        // 40 chars source + 40 chars translation → 10 + 10 + 4 = 24 tokens per entry
+        String text = "x".repeat(40);
+        SessionContextService.ContextEntry sample = new SessionContextService.ContextEntry(text, "en", text, "vi");
+        assertThat(sample.tokens()).isEqualTo(24);
+        configure(50, 100);
+
+        contextService.record("s1", text, "en", "first", "vi");
+        contextService.record("s1", text, "en", text, "vi");
+        contextService.record("s1", text, "en", text, "vi");
+
+        assertThat(contextService.snapshot("s1"))
+                .hasSize(2)
+                .extracting(SessionContextService.ContextEntry::translatedText)
+                .doesNotContain("first");
+    }
+
+    @Test
+    void entryAboveBudgetIsNotKept() {
+        configure(10, 100);
+
+        contextService.record("s1", "y".repeat(100), "en", "z".repeat(100), "vi");
+
+        assertThat(contextService.snapshot("s1")).isEmpty();
+    }
+
+    @Test
+    void sessionsAreIsolatedAndClearable() {
+        configure(600, 12);
+
+        contextService.record("s1", "hello", "en", "xin chào", "vi");
+        contextService.record("s2", "こんにちは", "ja", "xin chào", "vi");
+        contextService.clear("s1");
+
+        assertThat(contextService.snapshot("s1")).isEmpty();
+        assertThat(contextService.snapshot("s2")).hasSize(1);
+        assertThat(contextService.snapshot(null)).isEmpty();
+    }
+
+    @Test
+    void disabledWhenBudgetIsZero() {
+        configure(0, 12);
+
+        contextService.record("s1", "hello", "en", "xin chào", "vi");
+
+        assertThat(contextService.snapshot("s1")).isEmpty();
+    }
+
+    private void configure(int maxTokens, int maxEntries) {
+        ReflectionTestUtils.setField(contextService, "maxTokens", maxTokens);
+        ReflectionTestUtils.setField(contextService, "maxEntries", maxEntries);
+    }
+}
@@ -0,0 +1,109 @@
+package com.translator.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import com.translator.backend.model.AudioChunk;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class SessionRouterTest {
+
+    private static final String SELF = "http://node-a:8080";
+
+    private final SessionStateStore store = mock(SessionStateStore.class);
+    private final SessionRouter router = new SessionRouter(store, new ObjectMapper());
+    private final List<String> received = new CopyOnWriteArrayList<>();
+    private HttpServer owner;
+
+    SessionRouterTest() {
+        ReflectionTestUtils.setField(router, "nodeUrl", SELF);
+        ReflectionTestUtils.setField(router, "ownerLease", Duration.ofSeconds(30));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (owner != null) {
+            owner.stop(0);
+        }
+    }
+
+    @Test
+    void singleNodeHandlesEverythingLocally() {
+        ReflectionTestUtils.setField(router, "nodeUrl", "");
+
+        assertThat(router.forwardToOwner("s1", "/api/audio/upload", chunk(), false)).isFalse();
+        verifyNoInteractions(store);
+    }
+
+    @Test
+    void ownerHandlesItsOwnSession() {
+        when(store.claimOwner("s1", SELF, Duration.ofSeconds(30))).thenReturn(SELF);
+
+        assertThat(router.forwardToOwner("s1", "/api/audio/upload", chunk(), false)).isFalse();
+    }
+
+    @Test
+    void otherOwnerGetsTheRequest() throws IOException {
+        String ownerUrl = startOwner();
+        when(store.claimOwner("s1", SELF, Duration.ofSeconds(30))).thenReturn(ownerUrl);
+
+        assertThat(router.forwardToOwner("s1", "/api/audio/upload", chunk(), false)).isTrue();
+
+        assertThat(received).hasSize(1);
+        assertThat(received.get(0))
+                .startsWith("/api/audio/upload " + SELF + " ")
+                .contains("\"sessionId\":\"s1\"", "\"sequence\":7");
+        verify(store, never()).takeOverOwner(anyString(), anyString(), anyString(), any());
+    }
+
+    @Test
+    void forwardedRequestIsNeverForwardedAgain() {
+        assertThat(router.forwardToOwner("s1", "/api/audio/upload", chunk(), true)).isFalse();
+        verifyNoInteractions(store);
+    }
+
+    @Test
+    void unreachableOwnerIsTakenOver() {
+        String deadOwner = "http://127.0.0.1:1";
+        when(store.claimOwner("s1", SELF, Duration.ofSeconds(30))).thenReturn(deadOwner);
+        when(store.takeOverOwner("s1", deadOwner, SELF, Duration.ofSeconds(30))).thenReturn(SELF);
+
+        assertThat(router.forwardToOwner("s1", "/api/audio/upload", chunk(), false)).isFalse();
+
+        verify(store).takeOverOwner("s1", deadOwner, SELF, Duration.ofSeconds(30));
+    }
+
+    private String startOwner() throws IOException {
+        owner = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        owner.createContext("/", exchange -> {
+            String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            received.add(exchange.getRequestURI().getPath() + " "
+                    + exchange.getRequestHeaders().getFirst(SessionRouter.FORWARDED_HEADER) + " " + body);
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        owner.start();
+        return "http://127.0.0.1:" + owner.getAddress().getPort();
+    }
+
+    private static AudioChunk chunk() {
+        return new AudioChunk("s1", "UklGRg==", "ja", 1L, 7L);
+    }
+}
@@ -0,0 +1,84 @@
+package com.translator.backend.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Fuzzy lookup latency at scale. Not part of the regular test run
+ * (surefire only picks up *Test), run it explicitly:
+ *
+ *   mvn test -Dtest=TranslationMemoryBenchmark [-Dtm.entries=2000000]
+ */
+class TranslationMemoryBenchmark {
+
+    @Test
+    void lookupLatency() {
+        int entries = Integer.getInteger("tm.entries", 1_000_000);
+        int queries = Integer.getInteger("tm.queries", 10_000);
+
+        TranslationMemoryService memory = new TranslationMemoryService();
+        ReflectionTestUtils.setField(memory, "enabled", true);
+        ReflectionTestUtils.setField(memory, "maxPostings", Integer.getInteger("tm.max-postings", 50000));
+
+        Random random = new Random(42);
+        String[] vocabulary = vocabulary(random, Integer.getInteger("tm.vocabulary", 20_000));
+        String[] sources = new String[entries];
+        long loadStart = System.nanoTime();
+        for (int i = 0; i < entries; i++) {
+            sources[i] = sentence(random, vocabulary);
+            memory.approve(sources[i], "en", "bản dịch " + i, "vi");
+        }
+        long loadMs = (System.nanoTime() - loadStart) / 1_000_000;
+
+        // Warm up, then time near-duplicates of random entries
+        for (int i = 0; i < queries; i++) {
+            memory.lookup(sources[random.nextInt(entries)] + " ok", "en", "vi", 0.6, 3);
+        }
+        long[] nanos = new long[queries];
+        int found = 0;
+        for (int i = 0; i < queries; i++) {
+            String query = sources[random.nextInt(entries)] + " ok";
+            long start = System.nanoTime();
+            found += memory.lookup(query, "en", "vi", 0.6, 3).isEmpty() ? 0 : 1;
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+
+        System.out.printf("translation memory: %d entries loaded in %d ms%n", entries, loadMs);
+        System.out.printf("lookup: p50 %.3f ms, p99 %.3f ms, max %.3f ms, %d/%d found%n",
+                nanos[queries / 2] / 1e6, nanos[queries * 99 / 100] / 1e6, nanos[queries - 1] / 1e6,
+                found, queries);
+    }
+
+    /**
+     * Random lowercase words, the frequent (low rank) ones short like in real text
+     */
+    private static String[] vocabulary(Random random, int size) {
+        String[] words = new String[size];
+        for (int rank = 0; rank < size; rank++) {
+            int length = 2 + (int) Math.log10(rank + 1) + random.nextInt(4);
+            StringBuilder sb = new StringBuilder(length);
+            for (int c = 0; c < length; c++) {
+                sb.append((char) ('a' + random.nextInt(26)));
+            }
+            words[rank] = sb.toString();
+        }
+        return words;
+    }
+
+    /**
+     * 4-12 words, frequent words much more likely (roughly Zipf)
+     */
+    private static String sentence(Random random, String[] vocabulary) {
+        StringBuilder sb = new StringBuilder();
+        int words = 4 + random.nextInt(9);
+        for (int w = 0; w < words; w++) {
+            int rank = (int) Math.pow(vocabulary.length, random.nextDouble()) - 1;
+            sb.append(w > 0 ? " " : "").append(vocabulary[rank]);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,176 @@
+package com.translator.backend.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TranslationMemoryServiceTest {
+
+    @TempDir
+    Path dir;
+
+    private TranslationMemoryService memory;
+
+    @BeforeEach
+    void setUp() {
+        memory = newService();
+        memory.load();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        memory.close();
+    }
+
+    @Test
+    void exactMatchIgnoresCaseWhitespaceAndTrailingPunctuation() {
+        memory.approve("Good morning everyone.", "en", "Chào buổi sáng mọi người", "vi");
+
+        TranslationMemoryService.Entry entry = memory.findExact("  good   MORNING everyone!", "en", "vi");
+
+        assertThat(entry).isNotNull();
+        assertThat(entry.targetText()).isEqualTo("Chào buổi sáng mọi người");
+    }
+
+    @Test
+    void exactMatchIsScopedToLanguagePair() {
+        memory.approve("Thank you", "en", "Cảm ơn", "vi");
+
+        assertThat(memory.findExact("Thank you", "en", "ja")).isNull();
+        assertThat(memory.findExact("Thank you", "ja", "vi")).isNull();
+    }
+
+    @Test
+    void nearMatchIsNotExact() {
+        memory.approve("Please open the window", "en", "Làm ơn mở cửa sổ", "vi");
+
+        assertThat(memory.findExact("Please open the windows", "en", "vi")).isNull();
+
+        List<TranslationMemoryService.Match> matches =
+                memory.lookup("Please open the windows", "en", "vi", 0.6, 3);
+        assertThat(matches).hasSize(1);
+        assertThat(matches.get(0).score()).isGreaterThanOrEqualTo(0.6).isLessThan(1.0);
+    }
+
+    @Test
+    void lookupRanksByScoreAndAppliesLimit() {
+        memory.approve("the meeting starts at nine", "en", "cuộc họp bắt đầu lúc chín giờ", "vi");
+        memory.approve("the meeting starts at ten", "en", "cuộc họp bắt đầu lúc mười giờ", "vi");
+        memory.approve("lunch is served at noon", "en", "bữa trưa lúc mười hai giờ", "vi");
+
+        List<TranslationMemoryService.Match> matches =
+                memory.lookup("the meeting starts at nine thirty", "en", "vi", 0.5, 1);
+
+        assertThat(matches).hasSize(1);
+        assertThat(matches.get(0).entry().sourceText()).isEqualTo("the meeting starts at nine");
+    }
+
+    @Test
+    void fuzzyLookupIsScopedToLanguagePair() {
+        memory.approve("Please open the window", "en", "Làm ơn mở cửa sổ", "vi");
+
+        assertThat(memory.lookup("Please open the windows", "en", "ja", 0.5, 3)).isEmpty();
+        assertThat(memory.lookup("Please open the windows", "ja", "vi", 0.5, 3)).isEmpty();
+    }
+
+    @Test
+    void skippedCommonTrigramsDoNotLowerTheScore() throws IOException {
+        approveMeetingPhrases();
+        List<TranslationMemoryService.Match> unskipped =
+                memory.lookup("the meeting starts at nine thirty", "en", "vi", 0.5, 1);
+        memory.close();
+
+        // Every "the meeting starts at" trigram now exceeds the posting limit
+        memory = newService(5);
+        memory.load();
+        approveMeetingPhrases();
+        List<TranslationMemoryService.Match> skipped =
+                memory.lookup("the meeting starts at nine thirty", "en", "vi", 0.5, 1);
+
+        assertThat(skipped).hasSize(1);
+        assertThat(skipped.get(0).entry().sourceText()).isEqualTo("the meeting starts at nine");
+        assertThat(skipped.get(0).score()).isEqualTo(unskipped.get(0).score());
+    }
+
+    @Test
+    void closeMatchIsFoundAmongManyEntriesSharingCommonTrigrams() throws IOException {
+        memory.close();
+        memory = newService(1_000);
+        memory.load();
+        String[] words = {"the", "meeting", "project", "budget", "review", "starts", "ends", "today",
+                          "tomorrow", "at", "nine", "ten", "noon", "please", "check", "report"};
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            StringBuilder sb = new StringBuilder();
+            for (int w = 0; w < 6; w++) {
+                sb.append(words[random.nextInt(words.length)]).append(' ');
+            }
+            memory.approve(sb.append(i).toString(), "en", "bản dịch " + i, "vi");
+        }
+        memory.approve("the quarterly budget review starts tomorrow", "en", "Buổi xem xét ngân sách quý bắt đầu ngày mai", "vi");
+
+        List<TranslationMemoryService.Match> matches =
+                memory.lookup("the quarterly budget review starts tomorrow morning", "en", "vi", 0.6, 3);
+
+        assertThat(matches).isNotEmpty();
+        assertThat(matches.get(0).entry().sourceText()).isEqualTo("the quarterly budget review starts tomorrow");
+    }
+
+    @Test
+    void cjkTextMatchesWithoutWordSegmentation() {
+        memory.approve("よろしくお願いします。", "ja", "Rất mong được giúp đỡ", "vi");
+
+        assertThat(memory.findExact("よろしくお願いします", "ja", "vi")).isNotNull();
+        assertThat(memory.lookup("どうぞよろしくお願いします", "ja", "vi", 0.6, 3)).hasSize(1);
+    }
+
+    @Test
+    void approvingSameSourceReplacesTarget() {
+        memory.approve("Hello", "en", "Xin chào", "vi");
+        memory.approve("hello!", "en", "Chào bạn", "vi");
+
+        assertThat(memory.size()).isEqualTo(1);
+        assertThat(memory.findExact("Hello", "en", "vi").targetText()).isEqualTo("Chào bạn");
+    }
+
+    @Test
+    void entriesSurviveReload() throws IOException {
+        memory.approve("Line\twith tab", "en", "Dòng\ncó xuống dòng", "vi");
+        memory.close();
+
+        memory = newService();
+        memory.load();
+
+        assertThat(Files.readAllLines(dir.resolve("tm-50000.tsv"))).hasSize(1);
+        assertThat(memory.findExact("Line\twith tab", "en", "vi").targetText()).isEqualTo("Dòng\ncó xuống dòng");
+    }
+
+    private void approveMeetingPhrases() {
+        memory.approve("the meeting starts at nine", "en", "cuộc họp bắt đầu lúc chín giờ", "vi");
+        for (int i = 0; i < 10; i++) {
+            memory.approve("the meeting starts at room " + i, "en", "cuộc họp bắt đầu ở phòng " + i, "vi");
+        }
+    }
+
+    private TranslationMemoryService newService() {
+        return newService(50000);
+    }
+
+    private TranslationMemoryService newService(int maxPostings) {
+        TranslationMemoryService service = new TranslationMemoryService();
+        ReflectionTestUtils.setField(service, "enabled", true);
+        ReflectionTestUtils.setField(service, "memoryFile", dir.resolve("tm-" + maxPostings + ".tsv").toString());
+        ReflectionTestUtils.setField(service, "maxPostings", maxPostings);
+        return service;
+    }
+}
@@ -0,0 +1,132 @@
+package com.translator.backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class UtteranceSegmenterTest {
+
+    // 16 kHz mono 16-bit: 32 bytes per ms, 960 bytes per 30 ms frame
+    private static final WavUtils.Format FORMAT = new WavUtils.Format(1, 16000, 16);
+    private static final int BYTES_PER_MS = 32;
+
+    private final UtteranceSegmenter segmenter = new UtteranceSegmenter(500, 600, 2000, 30000);
+
+    @Test
+    void splitsAtLongPause() {
+        byte[] pcm = concat(tone(3000), silence(990), tone(3000));
+
+        List<int[]> segments = segmenter.split(FORMAT, pcm);
+
+        assertThat(segments).hasSize(2);
+        assertThat(segments.get(0)[0]).isZero();
+        // Cut somewhere inside the pause
+        assertThat(segments.get(0)[1]).isBetween(3000 * BYTES_PER_MS, 3990 * BYTES_PER_MS);
+        assertThat(segments.get(1)[0]).isEqualTo(segments.get(0)[1]);
+        assertThat(segments.get(1)[1]).isEqualTo(pcm.length);
+    }
+
+    @Test
+    void shortPauseDoesNotSplit() {
+        byte[] pcm = concat(tone(3000), silence(300), tone(3000));
+
+        assertThat(segmenter.split(FORMAT, pcm)).hasSize(1);
+    }
+
+    @Test
+    void pauseBeforeMinimumLengthDoesNotSplit() {
+        byte[] pcm = concat(tone(900), silence(990), tone(3000));
+
+        assertThat(segmenter.split(FORMAT, pcm)).hasSize(1);
+    }
+
+    @Test
+    void longSpeechIsCutAtMaxLength() {
+        UtteranceSegmenter shortMax = new UtteranceSegmenter(500, 600, 2000, 4000);
+        byte[] pcm = tone(12000);
+
+        List<int[]> segments = shortMax.split(FORMAT, pcm);
+
+        assertThat(segments.size()).isGreaterThanOrEqualTo(3);
+        assertThat(segments.get(0)[0]).isZero();
+        assertThat(segments.get(segments.size() - 1)[1]).isEqualTo(pcm.length);
+        for (int i = 0; i < segments.size(); i++) {
+            int[] segment = segments.get(i);
+            assertThat(segment[1] - segment[0]).isLessThanOrEqualTo(4000 * BYTES_PER_MS);
+            if (i > 0) {
+                assertThat(segment[0]).isEqualTo(segments.get(i - 1)[1]);
+            }
+        }
+    }
+
+    @Test
+    void silenceOnlyGivesNoSegments() {
+        assertThat(segmenter.split(FORMAT, silence(5000))).isEmpty();
+    }
+
+    @Test
+    void trailingPartialFrameIsKeptSampleAligned() {
+        byte[] pcm = concat(tone(3000), tone(10), new byte[1]);
+
+        List<int[]> segments = segmenter.split(FORMAT, pcm);
+
+        assertThat(segments).hasSize(1);
+        assertThat(segments.get(0)[1]).isEqualTo(pcm.length - 1);
+    }
+
+    @Test
+    void piecesSplitLikeTheJoinedAudio() {
+        byte[] pcm = concat(tone(3000), silence(990), tone(2500), silence(700), tone(2100), new byte[1]);
+
+        // Odd piece sizes: samples and frames straddle the pieces
+        List<ByteBuffer> pieces = new ArrayList<>();
+        for (int offset = 0; offset < pcm.length; offset += 777) {
+            pieces.add(ByteBuffer.wrap(pcm, offset, Math.min(777, pcm.length - offset)));
+        }
+
+        List<int[]> joined = segmenter.split(FORMAT, pcm);
+        List<int[]> streamed = segmenter.split(FORMAT, pieces);
+
+        assertThat(streamed).hasSize(3);
+        assertThat(streamed).usingElementComparator(Arrays::compare).isEqualTo(joined);
+    }
+
+    @Test
+    void rejectsNon16BitAudio() {
+        assertThatThrownBy(() -> segmenter.split(new WavUtils.Format(1, 16000, 8), new byte[16000]))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /**
+     * 400 Hz sine, a whole number of periods per 30 ms frame
+     */
+    private static byte[] tone(int ms) {
+        int samples = ms * BYTES_PER_MS / 2;
+        byte[] pcm = new byte[samples * 2];
+        for (int i = 0; i < samples; i++) {
+            short sample = (short) (8000 * Math.sin(2 * Math.PI * 400 * i / 16000.0));
+            pcm[i * 2] = (byte) sample;
+            pcm[i * 2 + 1] = (byte) (sample >> 8);
+        }
+        return pcm;
+    }
+
+    private static byte[] silence(int ms) {
+        return new byte[ms * BYTES_PER_MS];
+    }
+
+    private static byte[] concat(byte[]... parts) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (byte[] part : parts) {
+            out.writeBytes(part);
+        }
+        return out.toByteArray();
+    }
+}
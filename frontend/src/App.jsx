@@ -4,6 +4,9 @@ import speechRecognitionService from './services/speechRecognitionService';
 import websocketService from './services/websocketService';
 import './App.css';
 
+// Live translation preview of interim speech results: extra GPT calls, off by default
+const INTERIM_TRANSLATION = import.meta.env.VITE_INTERIM_TRANSLATION === 'true';
+
 function App() {
   const [isConnected, setIsConnected] = useState(false);
   const [isSessionActive, setIsSessionActive] = useState(false);
@@ -21,6 +24,7 @@ function App() {
   
   const conversationRef = useRef(null);
   const sessionStartTime = useRef(null);
+  const pendingTranslations = useRef(new Map()); // segmentId -> AbortController
 
   // Check Web Speech API support
   useEffect(() => {
@@ -71,15 +75,33 @@ function App() {
     }
   }, [conversations, typingText]);
 
-  const handleInterimResult = (result) => {
+  const handleInterimResult = async (result) => {
     const currentLang = currentSpeaker === '1' ? language1 : language2;
+    const targetLang = currentSpeaker === '1' ? language2 : language1;
     console.log('📝 Typing:', result.text);
     
-    setTypingText({
+    setTypingText(prev => ({
       text: result.text,
       language: currentLang,
-      timestamp: result.timestamp
-    });
+      timestamp: result.timestamp,
+      segmentId: result.segmentId,
+      // Keep the previous preview of the same segment until the new one arrives
+      translatedText: prev?.segmentId === result.segmentId ? prev.translatedText : null
+    }));
+
+    if (!INTERIM_TRANSLATION) {
+      return;
+    }
+
+    // Backend debounces interim revisions; the final of this segment cancels them
+    // (or reuses the last preview when its text did not change)
+    const translation = await requestTranslation(result.text, currentLang, targetLang, result);
+    if (translation === null) {
+      return;
+    }
+    setTypingText(prev => (
+      prev?.segmentId === result.segmentId ? { ...prev, translatedText: translation } : prev
+    ));
   };
 
   const handleFinalResult = async (result) => {
@@ -107,7 +129,14 @@ function App() {
     
     // Send to backend for translation only
     try {
-      const translation = await requestTranslation(result.text, currentLang, targetLang);
+      const translation = await requestTranslation(result.text, currentLang, targetLang, result);
+      
+      if (translation === null) {
+        // Superseded by a newer revision of the same segment, which adds its own entry
+        setConversations(prev => prev.filter(conv => conv.id !== newConv.id));
+        setTranslatingId(null);
+        return;
+      }
       
       // Update conversation with translation
       setConversations(prev => prev.map(conv => 
@@ -129,28 +158,49 @@ function App() {
     console.log('WebSocket translation:', data);
   };
 
-  const requestTranslation = async (text, sourceLang, targetLang) => {
+  const requestTranslation = async (text, sourceLang, targetLang, segment = {}) => {
+    // Abort the older in-flight request for the same segment
+    const pending = pendingTranslations.current;
+    if (segment.segmentId) {
+      pending.get(segment.segmentId)?.abort();
+    }
+    const controller = new AbortController();
+    if (segment.segmentId) {
+      pending.set(segment.segmentId, controller);
+    }
+
     try {
       const response = await fetch('http://localhost:8080/api/translate', {
         method: 'POST',
         headers: { 'Content-Type': 'application/json' },
+        signal: controller.signal,
         body: JSON.stringify({
           text: text,
           sourceLang: sourceLang,
           targetLang: targetLang,
-          sessionId: websocketService.getSessionId()
+          sessionId: websocketService.getSessionId(),
+          segmentId: segment.segmentId,
+          revision: segment.revision || 0,
+          finalResult: !!segment.isFinal
         })
       });
       
       if (response.ok) {
         const data = await response.json();
-        return data.translation;
+        return data.superseded ? null : data.translation;
       } else {
         throw new Error('Translation failed');
       }
     } catch (error) {
+      if (error.name === 'AbortError') {
+        return null;
+      }
       console.error('Translation request error:', error);
       return `[Error: ${text}]`;
+    } finally {
+      if (pending.get(segment.segmentId) === controller) {
+        pending.delete(segment.segmentId);
+      }
     }
   };
 
@@ -452,6 +502,11 @@ function App() {
             <p className="text-xl text-gray-800 font-medium">
               {typingText.text}<span className="animate-pulse">|</span>
             </p>
+            {typingText.translatedText && (
+              <p className="text-base text-gray-500 italic mt-1">
+                {typingText.translatedText}
+              </p>
+            )}
           </div>
         )}
 
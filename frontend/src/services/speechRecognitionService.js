@@ -8,6 +8,8 @@ class SpeechRecognitionService {
     this.isListening = false;
     this.currentLanguage = 'vi-VN';
     this.interimTranscript = '';
+    this.segmentCounter = 0; // id of the sentence currently being recognized
+    this.revision = 0; // bumps on every interim refinement of that sentence
     this.onInterimResult = null;
     this.onFinalResult = null;
     this.onError = null;
@@ -121,9 +123,12 @@ class SpeechRecognitionService {
     if (interim && this.onInterimResult) {
       console.log('📝 Interim:', interim);
       this.interimTranscript = interim;
+      this.revision++;
       this.onInterimResult({
         text: interim,
         isFinal: false,
+        segmentId: `seg-${this.segmentCounter}`,
+        revision: this.revision,
         timestamp: Date.now()
       });
     }
@@ -136,12 +141,16 @@ class SpeechRecognitionService {
         this.onFinalResult({
           text: final,
           isFinal: true,
+          segmentId: `seg-${this.segmentCounter}`,
+          revision: this.revision + 1,
           timestamp: Date.now()
         });
       }
 
-      // Reset interim transcript after final
+      // Reset interim transcript after final, next sentence gets a new segment
       this.interimTranscript = '';
+      this.segmentCounter++;
+      this.revision = 0;
     }
   }
 
@@ -1,15 +1,22 @@
 import { Client } from '@stomp/stompjs';
+import decodeCbor from '../utils/cborDecoder';
+
+// 'json' = plain JSON (default), 'cbor' = compact binary frames on /topic/*.cbor,
+// only when the backend runs with websocket.cbor.enabled=true
+const CAPTION_ENCODING = import.meta.env.VITE_CAPTION_ENCODING === 'cbor' ? 'cbor' : 'json';
 
 class WebSocketService {
   constructor() {
     this.client = null;
     this.connected = false;
     this.sessionId = null;
+    this.sequence = 0; // audio chunk sequence number, restarts with each session
     this.subscriptions = [];
   }
 
   connect(onPartialCaption, onFinalTranslation, onConnect, onError) {
     this.sessionId = `session-${Date.now()}`;
+    this.sequence = 0;
     
     this.client = new Client({
       brokerURL: 'ws://localhost:8080/ws',
@@ -22,19 +29,21 @@ class WebSocketService {
         this.connected = true;
         
         // Subscribe ONLY for receiving results
-        const sub1 = this.client.subscribe('/topic/partial', (message) => {
+        const suffix = CAPTION_ENCODING === 'cbor' ? '.cbor' : '';
+        
+        const sub1 = this.client.subscribe(`/topic/partial${suffix}`, (message) => {
           try {
-            const data = JSON.parse(message.body);
-            onPartialCaption(data);
+            const data = this.parseMessage(message);
+            if (onPartialCaption) onPartialCaption(data);
           } catch (error) {
             console.error('Error parsing partial:', error);
           }
         });
         
-        const sub2 = this.client.subscribe('/topic/final', (message) => {
+        const sub2 = this.client.subscribe(`/topic/final${suffix}`, (message) => {
           try {
-            const data = JSON.parse(message.body);
-            onFinalTranslation(data);
+            const data = this.parseMessage(message);
+            if (onFinalTranslation) onFinalTranslation(data);
           } catch (error) {
             console.error('Error parsing final:', error);
           }
@@ -68,6 +77,7 @@ class WebSocketService {
 
   // Send via HTTP instead of WebSocket
   async sendSessionInit(language1, language2) {
+    this.sequence = 0;
     try {
       const response = await fetch('http://localhost:8080/api/session/init', {
         method: 'POST',
@@ -94,7 +104,8 @@ class WebSocketService {
           sessionId: this.sessionId,
           audioData: audioData,
           language: language,
-          timestamp: Date.now()
+          timestamp: Date.now(),
+          sequence: this.sequence++
         })
       });
       
@@ -108,6 +119,15 @@ class WebSocketService {
     }
   }
 
+  // Binary CBOR or JSON text, depending on the frame's content-type
+  parseMessage(message) {
+    const contentType = message.headers['content-type'] || '';
+    if (contentType.startsWith('application/octet-stream')) {
+      return decodeCbor(message.binaryBody);
+    }
+    return JSON.parse(message.body);
+  }
+
   disconnect() {
     if (this.subscriptions.length > 0) {
       this.subscriptions.forEach(sub => sub.unsubscribe());
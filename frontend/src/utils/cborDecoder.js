@@ -0,0 +1,105 @@
+/**
+ * Minimal CBOR (RFC 8949) decoder for caption payloads.
+ * Supports ints, strings, byte strings, arrays, maps (incl. indefinite length,
+ * which Jackson uses for objects), floats, true/false/null. Tags are ignored.
+ */
+const textDecoder = new TextDecoder();
+
+function decodeCbor(bytes) {
+  const data = bytes instanceof Uint8Array ? bytes : new Uint8Array(bytes);
+  const view = new DataView(data.buffer, data.byteOffset, data.byteLength);
+  let offset = 0;
+
+  const BREAK = Symbol('break');
+
+  const readLength = (info) => {
+    if (info < 24) return info;
+    if (info === 24) return view.getUint8(offset++);
+    if (info === 25) { const v = view.getUint16(offset); offset += 2; return v; }
+    if (info === 26) { const v = view.getUint32(offset); offset += 4; return v; }
+    if (info === 27) { const v = Number(view.getBigUint64(offset)); offset += 8; return v; }
+    if (info === 31) return -1; // indefinite length
+    throw new Error(`Invalid CBOR length info: ${info}`);
+  };
+
+  const readFloat16 = () => {
+    const half = view.getUint16(offset);
+    offset += 2;
+    const exp = (half >> 10) & 0x1f;
+    const mant = half & 0x3ff;
+    const sign = half & 0x8000 ? -1 : 1;
+    if (exp === 0) return sign * mant * 2 ** -24;
+    if (exp === 31) return mant ? NaN : sign * Infinity;
+    return sign * (1 + mant / 1024) * 2 ** (exp - 15);
+  };
+
+  const readChunks = (majorType, length, decode) => {
+    if (length >= 0) {
+      const chunk = data.subarray(offset, offset + length);
+      offset += length;
+      return decode(chunk);
+    }
+    // Indefinite: definite-length chunks of the same type until break
+    const parts = [];
+    for (;;) {
+      const item = readItem();
+      if (item === BREAK) break;
+      parts.push(item);
+    }
+    return majorType === 3 ? parts.join('') : parts.reduce((a, b) => new Uint8Array([...a, ...b]), new Uint8Array());
+  };
+
+  const readItem = () => {
+    const initial = view.getUint8(offset++);
+    const majorType = initial >> 5;
+    const info = initial & 0x1f;
+
+    switch (majorType) {
+      case 0: return readLength(info);
+      case 1: return -1 - readLength(info);
+      case 2: return readChunks(2, readLength(info), (chunk) => chunk.slice());
+      case 3: return readChunks(3, readLength(info), (chunk) => textDecoder.decode(chunk));
+      case 4: {
+        const length = readLength(info);
+        const array = [];
+        for (let i = 0; length < 0 || i < length; i++) {
+          const item = readItem();
+          if (item === BREAK) break;
+          array.push(item);
+        }
+        return array;
+      }
+      case 5: {
+        const length = readLength(info);
+        const map = {};
+        for (let i = 0; length < 0 || i < length; i++) {
+          const key = readItem();
+          if (key === BREAK) break;
+          map[key] = readItem();
+        }
+        return map;
+      }
+      case 6:
+        readLength(info);
+        return readItem();
+      case 7:
+        switch (info) {
+          case 20: return false;
+          case 21: return true;
+          case 22: return null;
+          case 23: return undefined;
+          case 25: return readFloat16();
+          case 26: { const v = view.getFloat32(offset); offset += 4; return v; }
+          case 27: { const v = view.getFloat64(offset); offset += 8; return v; }
+          case 31: return BREAK;
+          default: return info < 24 ? info : view.getUint8(offset++);
+        }
+      default:
+        throw new Error(`Invalid CBOR major type: ${majorType}`);
+    }
+  };
+
+  return readItem();
+}
+
+export default decodeCbor;